@@ -0,0 +1,289 @@
+import java.util.Arrays;
+
+public class ActiveCellEngine implements LifeEngine {
+	/*
+	 * Game of Life engine that only evaluates cells whose neighborhood changed
+	 * A cell can only change state if it or one of its neighbors changed last generation (or was edited),
+	 * so every other cell is skipped and the cost of a generation scales with activity instead of board area
+	 *
+	 * Cells are stored one byte each with a one cell DEAD border around the board,
+	 * so neighbors can be read without bounds checks
+	 *
+	 * */
+
+	private static final byte DEAD = (byte) Cell.DEAD;
+	private static final byte ALIVE = (byte) Cell.ALIVE;
+	private static final int BORDER_MARK = Integer.MAX_VALUE; //Border cells look queued for every list, so they are never evaluated
+
+	private final int width, height, stride;
+	private final byte[] cells; //Current generation, index (y + 1) * stride + (x + 1)
+	private final int[] mark; //Value of stamp when the cell was last queued
+	private final int[] active; //Cells to evaluate next generation
+	private final int[] changed; //Cells that flip this generation
+	private final int[] offsets; //Index offsets of the 8 neighbors
+	private int activeCount;
+	private int evaluated; //Cells the last generation evaluated
+	private int stamp; //Identifies the active list being built, so marks never have to be cleared
+	private int population;
+	private LifeRule rule = LifeRule.CONWAY;
+	private boolean hashing; //True once getHash was called, from then on the hash is kept up to date
+	private long hash; //BoardHash of the current generation, while hashing
+	private ChangeSet changes; //Cells that flip are added to it, null when changes are not tracked
+
+	public ActiveCellEngine(int width, int height) {
+		/*
+		 * Constructs an empty board with specified width and height
+		 * If the board and its border have more than ByteStorage.MAX_CELLS cells, IllegalArgumentException is thrown
+		 *
+		 * */
+
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException();
+		}
+		int size;
+		try {
+			size = Math.multiplyExact(Math.addExact(width, 2), Math.addExact(height, 2));
+		} catch (ArithmeticException e) {
+			size = -1;
+		}
+		if (size < 0 || size > ByteStorage.MAX_CELLS) {
+			throw new IllegalArgumentException("A " + width + "x" + height + " board and its border have more than the " + ByteStorage.MAX_CELLS + " cells an active cell engine holds");
+		}
+		this.width = width;
+		this.height = height;
+		this.stride = width + 2;
+		this.cells = new byte[size];
+		this.mark = new int[cells.length];
+		this.active = new int[width * height];
+		this.changed = new int[width * height];
+		this.offsets = new int[] {-stride - 1, -stride, -stride + 1, -1, 1, stride - 1, stride, stride + 1};
+		clear();
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the board
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the board
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public boolean isAlive(int x, int y) {
+		/*
+		 * Returns true if the cell at (x, y) is alive
+		 *
+		 * */
+
+		return cells[(y + 1) * stride + x + 1] == ALIVE;
+	}
+
+	public void setAlive(int x, int y, boolean alive) {
+		/*
+		 * Sets the cell at (x, y) to ALIVE or DEAD and queues its neighborhood for the next generation
+		 *
+		 * */
+
+		int index = (y + 1) * stride + x + 1;
+		if ((cells[index] == ALIVE) != alive) {
+			cells[index] = alive ? ALIVE : DEAD;
+			population += alive ? 1 : -1;
+			if (hashing) {
+				hash ^= BoardHash.cellKey(x, y);
+			}
+			activate(index);
+		}
+	}
+
+	public void clear() {
+		/*
+		 * Sets every cell on the board to DEAD, leaving nothing to evaluate
+		 *
+		 * */
+
+		Arrays.fill(cells, DEAD);
+		Arrays.fill(mark, BORDER_MARK);
+		for (int y = 1; y <= height; y++) {
+			Arrays.fill(mark, y * stride + 1, y * stride + 1 + width, 0);
+		}
+		stamp = 1;
+		activeCount = 0;
+		population = 0;
+		hash = 0;
+		if (rule.birthOnZero()) { //Under a B0 rule every empty cell is born, so none can be skipped
+			activateAll();
+		}
+	}
+
+	public int countLivingCells() {
+		/*
+		 * Returns the number of living cells, kept up to date as cells change
+		 *
+		 * */
+
+		return this.population;
+	}
+
+	public int getActiveCount() {
+		/*
+		 * Returns the number of cells the next generation will evaluate
+		 *
+		 * */
+
+		return this.activeCount;
+	}
+
+	public void nextGen() {
+		/*
+		 * Evaluates the queued cells, flips the ones that change
+		 * and queues the neighborhoods of those for the following generation
+		 *
+		 * */
+
+		//Finds the cells that change, without changing any yet since later cells read the current generation
+		evaluated = activeCount;
+		int changedCount = 0;
+		for (int i = 0; i < activeCount; i++) {
+			int index = active[i];
+			int neighbors = 0;
+			for (int offset : offsets) {
+				neighbors += cells[index + offset];
+			}
+			boolean alive = cells[index] == ALIVE;
+			if (alive != rule.next(alive, neighbors)) {
+				changed[changedCount++] = index;
+			}
+		}
+
+		//Starts a new active list made of the neighborhoods of the changed cells
+		nextStamp();
+		activeCount = 0;
+		for (int i = 0; i < changedCount; i++) {
+			int index = changed[i];
+			cells[index] ^= 1;
+			population += cells[index] == ALIVE ? 1 : -1;
+			if (hashing || changes != null) {
+				int x = index % stride - 1, y = index / stride - 1;
+				if (hashing) {
+					hash ^= BoardHash.cellKey(x, y);
+				}
+				if (changes != null) {
+					changes.add(x, y);
+				}
+			}
+			activate(index);
+		}
+	}
+
+	public long getCellsEvaluated() {
+		/*
+		 * Returns the number of cells the last generation evaluated
+		 *
+		 * */
+
+		return this.evaluated;
+	}
+
+	public long getHash() {
+		/*
+		 * Returns the BoardHash of the board
+		 * The first call computes it from the cells, after that it is kept up to date as cells flip
+		 *
+		 * */
+
+		if (!hashing) {
+			hash = LifeEngine.super.getHash();
+			hashing = true;
+		}
+		return this.hash;
+	}
+
+	public boolean setChangeSet(ChangeSet changes) {
+		/*
+		 * Adds the cells that flip in each generation to changes from now on, null stops
+		 * The flipped cells are already listed, so this costs one add per flip
+		 *
+		 * */
+
+		this.changes = changes;
+		return true;
+	}
+
+	public void setStepper(ParallelStepper stepper) {
+		/*
+		 * Active lists are stepped sequentially, so the stepper is not used
+		 *
+		 * */
+	}
+
+	public void setRule(LifeRule rule) {
+		/*
+		 * Sets the rule cells are evaluated with and queues every cell, since a settled cell may not be under the new rule
+		 *
+		 * */
+
+		this.rule = rule;
+		activateAll();
+	}
+
+	private void activateAll() {
+		/*
+		 * Queues every cell of the board for the next generation
+		 *
+		 * */
+
+		for (int y = 1; y <= height; y++) {
+			for (int index = y * stride + 1; index <= y * stride + width; index++) {
+				if (mark[index] < stamp) {
+					mark[index] = stamp;
+					active[activeCount++] = index;
+				}
+			}
+		}
+	}
+
+	private void activate(int index) {
+		/*
+		 * Queues a cell and its 8 neighbors to be evaluated next generation, skipping cells already queued
+		 *
+		 * */
+
+		if (mark[index] < stamp) {
+			mark[index] = stamp;
+			active[activeCount++] = index;
+		}
+		for (int offset : offsets) {
+			int neighbor = index + offset;
+			if (mark[neighbor] < stamp) {
+				mark[neighbor] = stamp;
+				active[activeCount++] = neighbor;
+			}
+		}
+	}
+
+	private void nextStamp() {
+		/*
+		 * Moves on to a new stamp, resetting the marks if the stamps run out
+		 *
+		 * */
+
+		stamp++;
+		if (stamp == BORDER_MARK) {
+			for (int i = 0; i < mark.length; i++) {
+				if (mark[i] != BORDER_MARK) {
+					mark[i] = 0;
+				}
+			}
+			stamp = 1;
+		}
+	}
+}
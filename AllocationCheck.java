@@ -0,0 +1,105 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class AllocationCheck {
+	/*
+	 * Checks that stepping a double-buffered board allocates nothing once the JIT has warmed up
+	 *
+	 * Steps a random soup on every engine that can be double buffered, and on CELL_ENGINE in each storage it can be
+	 * double buffered in, starting from a board of Cells like older versions did, then measures the bytes the stepping
+	 * thread allocates over a run of generations with ThreadMXBean.getThreadAllocatedBytes
+	 * Prints one line per board and exits with status 1 if any of them allocated
+	 *
+	 * Usage: java AllocationCheck [--size N] [--gens N]
+	 *
+	 * */
+
+	private static final int ROUNDS = 5; //Measured runs per board, later ones run fully compiled code
+
+	public static void main(String[] args) {
+		int size = 128, gens = 10000;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			if (args[i].equals("--size")) {
+				size = Integer.parseInt(args[i + 1]);
+			}
+			else if (args[i].equals("--gens")) {
+				gens = Integer.parseInt(args[i + 1]);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			System.out.println("This JVM does not measure allocation per thread");
+			System.exit(1);
+		}
+
+		boolean ok = true;
+		for (int engine = 0; engine < GameOfLife.ENGINE_NAMES.length; engine++) {
+			if (engine == GameOfLife.HASHLIFE_ENGINE || engine == GameOfLife.SPARSE_ENGINE) {
+				continue; //They allocate as they step by design, setDoubleBuffered refuses them
+			}
+			int[] storages = engine == GameOfLife.CELL_ENGINE ? new int[] {GameOfLife.PIECE_STORAGE, GameOfLife.BIT_STORAGE} : new int[] {-1};
+			for (int storage : storages) {
+				GameOfLife game = soup(size, engine);
+				if (engine == GameOfLife.CELL_ENGINE || engine == GameOfLife.BIT_ENGINE) {
+					game.setToroidal(true); //Gliders wrap around instead of leaving the board
+				}
+				game.setDoubleBuffered(true);
+				if (storage >= 0 && storage != GameOfLife.PIECE_STORAGE) {
+					game.setStorage(storage);
+				}
+				String name = GameOfLife.ENGINE_NAMES[engine] + (engine == GameOfLife.CELL_ENGINE ? "/" + GameOfLife.STORAGE_NAMES[game.getStorageType()] : "");
+
+				//Warms up, then keeps the lowest of several runs, the first ones may still run code that allocates before it is compiled
+				for (int i = 0; i < 2 * gens; i++) {
+					game.nextGen();
+				}
+				long least = Long.MAX_VALUE;
+				for (int round = 0; round < ROUNDS; round++) {
+					long before = threads.getCurrentThreadAllocatedBytes();
+					for (int i = 0; i < gens; i++) {
+						game.nextGen();
+					}
+					least = Math.min(least, threads.getCurrentThreadAllocatedBytes() - before);
+				}
+				boolean flat = least == 0;
+				ok &= flat;
+				System.out.printf("%-12s %s  %,d bytes over %,d generations, population %d%n", name, flat ? "ok  " : "FAIL", least, gens, game.countLivingCells());
+			}
+		}
+		System.exit(ok ? 0 : 1);
+	}
+
+	private static GameOfLife soup(int size, int engine) {
+		/*
+		 * Returns a board with a random soup of the given side, from a board of Cells on CELL_ENGINE
+		 *
+		 * */
+
+		Random random = new Random(size);
+		if (engine == GameOfLife.CELL_ENGINE) {
+			Cell[][] cells = new Cell[size][size];
+			for (Cell[] row : cells) {
+				for (int x = 0; x < size; x++) {
+					row[x] = new Cell(random.nextBoolean() ? Cell.ALIVE : Cell.DEAD);
+				}
+			}
+			return new GameOfLife(cells);
+		}
+		GameOfLife game = new GameOfLife(size, size, engine);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (random.nextBoolean()) {
+					game.setCell(x, y, Cell.ALIVE);
+				}
+			}
+		}
+		return game;
+	}
+}
@@ -0,0 +1,561 @@
+import java.util.Arrays;
+
+public class BitBoard implements LifeEngine, ParallelStepper.RowStepper {
+	/*
+	 * Bit-packed Game of Life board
+	 * Every row is stored as a long[] with one bit per cell, bit i of word k is cell x = 64 * k + i
+	 * The next generation is computed 64 cells at a time with bitwise adder logic
+	 * Cells outside the board are treated as DEAD, like in the GameBoard engine, unless the board is toroidal
+	 * A toroidal board steps its rows the same way with the opposite edge rows above and below,
+	 * then recomputes the first and last column of each row with the wrapped neighbors
+	 *
+	 * */
+
+	private long[][] rows; //Current generation
+	private long[][] nextRows; //Buffer the next generation is written into, swapped with rows after each step, null until the first step
+	private final long[] emptyRow; //Row of DEAD cells used above the first and below the last row
+	private final int width, height, words;
+	private final long lastWordMask; //Masks off the unused bits past the right edge of the board
+	private ParallelStepper stepper; //Splits nextGen into row bands, null when stepping sequentially
+	private RowKernel kernel = RowKernel.defaultKernel(); //Computes the next generation of each row under Conway's rule
+	private LifeRule rule = LifeRule.CONWAY;
+	private boolean toroidal; //Edges wrap around
+	private boolean hashing; //True once getHash was called, from then on the hash is kept up to date
+	private long hash; //BoardHash of the current generation, while hashing
+	private final long[] rowHash; //Change of the hash in each row during the last step, so bands can run in parallel
+	private ChangeSet changes; //Cells that flip are added to it, null when changes are not tracked
+	private boolean counting; //True once countLivingCells or getLiveBounds was called, from then on both are kept up to date
+	private int population; //Living cells, while counting
+	private int minX, minY, maxX, maxY; //Box holding every living cell while counting, maxX < minX when there are none
+	private boolean boundsLoose; //True when cells on the edge of the box were killed by an edit, so it may be larger than needed
+	private int[] rowPopulation, rowMinX, rowMaxX; //Living cells of each row after the last step and their span, while counting
+	private int[] rowChangeMinX, rowChangeMaxX; //Span of the cells that flipped in each row during the last step, while tracking changes
+
+	public BitBoard(int width, int height) {
+		/*
+		 * Constructs an empty bit-packed board with specified width and height
+		 *
+		 * */
+
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.width = width;
+		this.height = height;
+		this.words = (width + 63) >>> 6;
+		this.lastWordMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+		this.rows = new long[height][words];
+		this.emptyRow = new long[words];
+		this.rowHash = new long[height];
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the board
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the board
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public boolean isAlive(int x, int y) {
+		/*
+		 * Returns true if the cell at (x, y) is alive
+		 *
+		 * */
+
+		return (rows[y][x >>> 6] & (1L << x)) != 0;
+	}
+
+	public void setAlive(int x, int y, boolean alive) {
+		/*
+		 * Sets the cell at (x, y) to ALIVE or DEAD
+		 *
+		 * */
+
+		if (((rows[y][x >>> 6] & (1L << x)) != 0) != alive) {
+			rows[y][x >>> 6] ^= 1L << x;
+			if (hashing) {
+				hash ^= BoardHash.cellKey(x, y);
+			}
+			if (counting) {
+				if (alive) {
+					edited(y, x, x, 1, -1, -1);
+				}
+				else {
+					edited(y, Integer.MAX_VALUE, -1, -1, x, x);
+				}
+			}
+		}
+	}
+
+	public void setAliveRun(int x, int y, int length) {
+		/*
+		 * Sets length cells of row y to ALIVE starting at x, a word at a time
+		 *
+		 * */
+
+		long[] row = rows[y];
+		int end = x + length; //Exclusive
+		while (x < end) {
+			int bits = Math.min(64 - (x & 63), end - x);
+			long mask = bits == 64 ? -1L : ((1L << bits) - 1) << x;
+			if (hashing) {
+				hash ^= BoardHash.bitsKey(x & ~63, y, mask & ~row[x >>> 6]);
+			}
+			if (counting && (mask & ~row[x >>> 6]) != 0) {
+				long born = mask & ~row[x >>> 6];
+				edited(y, (x & ~63) + Long.numberOfTrailingZeros(born), (x & ~63) + 63 - Long.numberOfLeadingZeros(born), Long.bitCount(born), -1, -1);
+			}
+			row[x >>> 6] |= mask;
+			x += bits;
+		}
+	}
+
+	public void getRow(int y, long[] words) {
+		/*
+		 * Copies row y into words, which already has the right layout
+		 *
+		 * */
+
+		System.arraycopy(rows[y], 0, words, 0, this.words);
+	}
+
+	public void setRow(int y, long[] words) {
+		/*
+		 * Replaces row y with words, dropping any bits past the right edge of the board
+		 *
+		 * */
+
+		for (int k = 0; k < this.words; k++) {
+			long word = k == this.words - 1 ? words[k] & lastWordMask : words[k];
+			if (hashing) {
+				hash ^= BoardHash.bitsKey(64 * k, y, word ^ rows[y][k]);
+			}
+			if (counting && word != rows[y][k]) {
+				long born = word & ~rows[y][k], died = rows[y][k] & ~word;
+				edited(y, born == 0 ? Integer.MAX_VALUE : 64 * k + Long.numberOfTrailingZeros(born), born == 0 ? -1 : 64 * k + 63 - Long.numberOfLeadingZeros(born),
+						Long.bitCount(born) - Long.bitCount(died),
+						died == 0 ? -1 : 64 * k + Long.numberOfTrailingZeros(died), died == 0 ? -1 : 64 * k + 63 - Long.numberOfLeadingZeros(died));
+			}
+			rows[y][k] = word;
+		}
+	}
+
+	public void clear() {
+		/*
+		 * Sets every cell on the board to DEAD
+		 *
+		 * */
+
+		for (long[] row : rows) {
+			Arrays.fill(row, 0L);
+		}
+		hash = 0;
+		population = 0;
+		emptyBounds();
+	}
+
+	public int countLivingCells() {
+		/*
+		 * Returns the number of living cells
+		 * The first call counts them, one bitCount per 64 cells, after that the count is kept up to date as cells change
+		 *
+		 * */
+
+		startCounting();
+		return this.population;
+	}
+
+	public int[] getLiveBounds() {
+		/*
+		 * Returns {minX, minY, maxX, maxY} of the living cells, or null if there are none
+		 * The first call scans the rows, after that the box is kept up to date as cells change,
+		 * and only rescanned (inside the old box) after cells on its edge were killed by an edit
+		 *
+		 * */
+
+		startCounting();
+		if (boundsLoose) {
+			int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = -1, bottom = -1;
+			for (int y = minY; y <= maxY; y++) {
+				for (int k = minX >>> 6; k <= maxX >>> 6; k++) {
+					long word = rows[y][k];
+					if (word != 0) {
+						left = Math.min(left, 64 * k + Long.numberOfTrailingZeros(word));
+						right = Math.max(right, 64 * k + 63 - Long.numberOfLeadingZeros(word));
+						top = Math.min(top, y);
+						bottom = y;
+					}
+				}
+			}
+			minX = left;
+			minY = top;
+			maxX = right;
+			maxY = bottom;
+			boundsLoose = false;
+		}
+		return maxX < minX ? null : new int[] {minX, minY, maxX, maxY};
+	}
+
+	private void startCounting() {
+		/*
+		 * Counts the living cells and finds their box once, from then on steps and edits keep both up to date
+		 *
+		 * */
+
+		if (counting) {
+			return;
+		}
+		int[] box = LifeEngine.super.getLiveBounds();
+		population = 0;
+		for (long[] row : rows) {
+			for (long word : row) {
+				population += Long.bitCount(word);
+			}
+		}
+		if (box == null) {
+			emptyBounds();
+		}
+		else {
+			minX = box[0];
+			minY = box[1];
+			maxX = box[2];
+			maxY = box[3];
+			boundsLoose = false;
+		}
+		rowPopulation = new int[height];
+		rowMinX = new int[height];
+		rowMaxX = new int[height];
+		counting = true;
+	}
+
+	private void edited(int y, int bornLeft, int bornRight, int change, int diedLeft, int diedRight) {
+		/*
+		 * Updates the count and box after an edit of row y changed the population by change,
+		 * with cells born from bornLeft to bornRight and cells killed from diedLeft to diedRight (-1 for none)
+		 *
+		 * */
+
+		population += change;
+		if (bornRight >= 0) {
+			minX = Math.min(minX, bornLeft);
+			maxX = Math.max(maxX, bornRight);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		if (population == 0) {
+			emptyBounds();
+		}
+		else if (diedRight >= 0 && (y == minY || y == maxY || diedLeft == minX || diedRight == maxX)) {
+			boundsLoose = true;
+		}
+	}
+
+	private void emptyBounds() {
+		/*
+		 * Resets the box to hold no cells
+		 *
+		 * */
+
+		minX = Integer.MAX_VALUE;
+		minY = Integer.MAX_VALUE;
+		maxX = -1;
+		maxY = -1;
+		boundsLoose = false;
+	}
+
+	public void nextGen() {
+		/*
+		 * Writes the next generation into the spare buffer and swaps the two buffers
+		 * The spare buffer is allocated on the first step, so a BitBoard used only as storage keeps a single copy of the board
+		 *
+		 * */
+
+		if (nextRows == null) {
+			nextRows = new long[height][words];
+		}
+		if (stepper != null) {
+			stepper.run(height, this);
+		}
+		else {
+			stepRows(0, height);
+		}
+
+		long[][] temp = rows;
+		rows = nextRows;
+		nextRows = temp;
+		if (hashing) {
+			for (long change : rowHash) {
+				hash ^= change;
+			}
+		}
+		if (counting) {
+			population = 0;
+			emptyBounds();
+			for (int y = 0; y < height; y++) {
+				if (rowPopulation[y] > 0) {
+					population += rowPopulation[y];
+					minX = Math.min(minX, rowMinX[y]);
+					maxX = Math.max(maxX, rowMaxX[y]);
+					minY = Math.min(minY, y);
+					maxY = y;
+				}
+			}
+		}
+		if (changes != null) {
+			for (int y = 0; y < height; y++) {
+				if (rowChangeMaxX[y] >= 0) {
+					changes.addSpan(y, rowChangeMinX[y], rowChangeMaxX[y]);
+				}
+			}
+		}
+	}
+
+	public void stepRows(int fromRow, int toRow) {
+		/*
+		 * Writes the next generation of rows fromRow to toRow into the spare buffer
+		 * While hashing, also hashes the cells that flip, only words that changed are looked at cell by cell
+		 * While tracking changes, also finds the span of the cells that flip
+		 * While counting, also counts the living cells of each row and finds their span
+		 *
+		 * */
+
+		for (int y = fromRow; y < toRow; y++) {
+			long[] above = y > 0 ? rows[y - 1] : toroidal ? rows[height - 1] : emptyRow;
+			long[] below = y < height - 1 ? rows[y + 1] : toroidal ? rows[0] : emptyRow;
+			if (rule.isConway()) {
+				kernel.stepRow(above, rows[y], below, nextRows[y], words);
+			}
+			else {
+				stepRow(above, rows[y], below, nextRows[y], words, rule);
+			}
+			if (words > 0) {
+				nextRows[y][words - 1] &= lastWordMask;
+			}
+			if (toroidal && words > 0) {
+				wrapCell(above, rows[y], below, nextRows[y], 0);
+				wrapCell(above, rows[y], below, nextRows[y], width - 1);
+			}
+			if (hashing || changes != null) {
+				long change = 0;
+				int left = Integer.MAX_VALUE, right = -1;
+				for (int k = 0; k < words; k++) {
+					long flipped = nextRows[y][k] ^ rows[y][k];
+					if (flipped != 0) {
+						if (hashing) {
+							change ^= BoardHash.bitsKey(64 * k, y, flipped);
+						}
+						left = Math.min(left, 64 * k + Long.numberOfTrailingZeros(flipped));
+						right = 64 * k + 63 - Long.numberOfLeadingZeros(flipped);
+					}
+				}
+				rowHash[y] = change;
+				if (changes != null) {
+					rowChangeMinX[y] = left;
+					rowChangeMaxX[y] = right;
+				}
+			}
+			if (counting) {
+				int count = 0, left = Integer.MAX_VALUE, right = -1;
+				for (int k = 0; k < words; k++) {
+					long word = nextRows[y][k];
+					if (word != 0) {
+						count += Long.bitCount(word);
+						left = Math.min(left, 64 * k + Long.numberOfTrailingZeros(word));
+						right = 64 * k + 63 - Long.numberOfLeadingZeros(word);
+					}
+				}
+				rowPopulation[y] = count;
+				rowMinX[y] = left;
+				rowMaxX[y] = right;
+			}
+		}
+	}
+
+	private void wrapCell(long[] above, long[] row, long[] below, long[] out, int x) {
+		/*
+		 * Recomputes cell x of a row of a toroidal board, where x is the first or last column and its west or east neighbors are on the opposite edge
+		 *
+		 * */
+
+		int west = x == 0 ? width - 1 : x - 1, east = x == width - 1 ? 0 : x + 1;
+		int neighbors = bit(above, west) + bit(above, x) + bit(above, east)
+				+ bit(row, west) + bit(row, east)
+				+ bit(below, west) + bit(below, x) + bit(below, east);
+		if (rule.next(bit(row, x) == 1, neighbors)) {
+			out[x >>> 6] |= 1L << x;
+		}
+		else {
+			out[x >>> 6] &= ~(1L << x);
+		}
+	}
+
+	private static int bit(long[] row, int x) {
+		return (int) (row[x >>> 6] >>> x) & 1;
+	}
+
+	public boolean setChangeSet(ChangeSet changes) {
+		/*
+		 * Adds the cells that flip in each step to changes from now on, null stops
+		 *
+		 * */
+
+		if (changes != null && rowChangeMinX == null) {
+			rowChangeMinX = new int[height];
+			rowChangeMaxX = new int[height];
+		}
+		this.changes = changes;
+		return true;
+	}
+
+	public void setToroidal(boolean toroidal) {
+		/*
+		 * Switches between a bounded board and a toroidal one, where edges wrap around
+		 *
+		 * */
+
+		this.toroidal = toroidal;
+	}
+
+	public long getHash() {
+		/*
+		 * Returns the BoardHash of the board
+		 * The first call computes it from the rows, after that it is kept up to date as cells flip
+		 *
+		 * */
+
+		if (!hashing) {
+			hash = LifeEngine.super.getHash();
+			hashing = true;
+		}
+		return this.hash;
+	}
+
+	public void setStepper(ParallelStepper stepper) {
+		/*
+		 * Sets the stepper nextGen runs on, null to step sequentially
+		 *
+		 * */
+
+		this.stepper = stepper;
+	}
+
+	public void setRule(LifeRule rule) {
+		/*
+		 * Sets the rule rows are stepped with, rules other than B3/S23 are stepped without the kernel
+		 *
+		 * */
+
+		this.rule = rule;
+	}
+
+	public void setKernel(RowKernel kernel) {
+		/*
+		 * Sets the kernel rows are stepped with, for example RowKernel.SCALAR or RowKernel.vector()
+		 *
+		 * */
+
+		this.kernel = kernel;
+	}
+
+	public RowKernel getKernel() {
+		/*
+		 * Returns the kernel rows are stepped with
+		 *
+		 * */
+
+		return this.kernel;
+	}
+
+	static void stepRow(long[] above, long[] row, long[] below, long[] out, int words) {
+		/*
+		 * Computes the next generation of one row, given the rows above and below it
+		 * Words past either end of the row are treated as DEAD
+		 *
+		 * */
+
+		long aW = 0, mW = 0, bW = 0; //Words to the west of the current one
+		long a = words > 0 ? above[0] : 0, m = words > 0 ? row[0] : 0, b = words > 0 ? below[0] : 0;
+		for (int k = 0; k < words; k++) {
+			long aE = 0, mE = 0, bE = 0; //Words to the east of the current one
+			if (k < words - 1) {
+				aE = above[k + 1];
+				mE = row[k + 1];
+				bE = below[k + 1];
+			}
+			out[k] = nextWord(aW, a, aE, mW, m, mE, bW, b, bE);
+			aW = a;
+			mW = m;
+			bW = b;
+			a = aE;
+			m = mE;
+			b = bE;
+		}
+	}
+
+	static void stepRow(long[] above, long[] row, long[] below, long[] out, int words, LifeRule rule) {
+		/*
+		 * Computes the next generation of one row under any rule, like stepRow does for B3/S23
+		 *
+		 * */
+
+		long aW = 0, mW = 0, bW = 0;
+		long a = words > 0 ? above[0] : 0, m = words > 0 ? row[0] : 0, b = words > 0 ? below[0] : 0;
+		for (int k = 0; k < words; k++) {
+			long aE = 0, mE = 0, bE = 0;
+			if (k < words - 1) {
+				aE = above[k + 1];
+				mE = row[k + 1];
+				bE = below[k + 1];
+			}
+			out[k] = rule.nextWord(aW, a, aE, mW, m, mE, bW, b, bE);
+			aW = a;
+			mW = m;
+			bW = b;
+			a = aE;
+			m = mE;
+			b = bE;
+		}
+	}
+
+	static long nextWord(long aW, long a, long aE, long mW, long m, long mE, long bW, long b, long bE) {
+		/*
+		 * Computes the next state of 64 cells at once
+		 * a, m and b are the words above, on and below the cells, the W and E words are their west and east neighbors
+		 *
+		 * The 8 neighbor bits are added with bit-sliced adders, leaving the count as ones + 2 * twos
+		 * A cell is alive next generation if the count is 3, or 2 and it is alive already,
+		 * which is exactly when twos == 1 and (ones == 1 or the cell is alive)
+		 *
+		 * */
+
+		//Aligns the west and east neighbors of every cell with the cell itself
+		long aL = (a << 1) | (aW >>> 63), aR = (a >>> 1) | (aE << 63);
+		long mL = (m << 1) | (mW >>> 63), mR = (m >>> 1) | (mE << 63);
+		long bL = (b << 1) | (bW >>> 63), bR = (b >>> 1) | (bE << 63);
+
+		//Sums of the three cells above and below (2 bits each) and the two beside (2 bits)
+		long a1 = aL ^ a ^ aR, a2 = (aL & a) | (aR & (aL ^ a));
+		long b1 = bL ^ b ^ bR, b2 = (bL & b) | (bR & (bL ^ b));
+		long m1 = mL ^ mR, m2 = mL & mR;
+
+		//Adds the low bits, carrying into the twos
+		long ones = a1 ^ b1 ^ m1;
+		long carry = (a1 & b1) | (m1 & (a1 ^ b1));
+
+		//True where exactly one of the four twos-place bits is set
+		long twosIsOne = (a2 ^ b2 ^ m2 ^ carry) & ~(a2 & b2) & ~(m2 & carry);
+
+		return twosIsOne & (ones | m);
+	}
+}
@@ -0,0 +1,65 @@
+public final class BitTile {
+	/*
+	 * Helpers for 64 x 64 tiles of bit-packed cells, stored as a long[64] with one word per row
+	 * Bit i of row y is the cell at (64 * tileX + i, 64 * tileY + y)
+	 *
+	 * */
+
+	public static final int SIZE = 64;
+	public static final int SHIFT = 6; //log2(SIZE), cell coordinate >> SHIFT is the tile coordinate
+	static final long[] EMPTY = new long[SIZE]; //Tile of DEAD cells used for missing neighbors, never written
+
+	private BitTile() {
+	}
+
+	static int step(long[] tile, long[] n, long[] s, long[] w, long[] e,
+			long[] nw, long[] ne, long[] sw, long[] se, long[] out, LifeRule rule) {
+		/*
+		 * Writes the next generation of tile under rule into out, given its 8 neighbor tiles (EMPTY if missing)
+		 * Returns the number of living cells in out
+		 *
+		 * */
+
+		int population = 0;
+		for (int y = 0; y < SIZE; y++) {
+			long a, aW, aE, b, bW, bE;
+			if (y > 0) {
+				a = tile[y - 1];
+				aW = w[y - 1];
+				aE = e[y - 1];
+			}
+			else {
+				a = n[SIZE - 1];
+				aW = nw[SIZE - 1];
+				aE = ne[SIZE - 1];
+			}
+			if (y < SIZE - 1) {
+				b = tile[y + 1];
+				bW = w[y + 1];
+				bE = e[y + 1];
+			}
+			else {
+				b = s[0];
+				bW = sw[0];
+				bE = se[0];
+			}
+			long next = rule.nextWord(aW, a, aE, w[y], tile[y], e[y], bW, b, bE);
+			out[y] = next;
+			population += Long.bitCount(next);
+		}
+		return population;
+	}
+
+	static int population(long[] tile) {
+		/*
+		 * Returns the number of living cells in a tile
+		 *
+		 * */
+
+		int population = 0;
+		for (long row : tile) {
+			population += Long.bitCount(row);
+		}
+		return population;
+	}
+}
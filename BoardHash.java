@@ -0,0 +1,40 @@
+public final class BoardHash {
+	/*
+	 * Zobrist-style hashing of Game of Life boards
+	 *
+	 * Every cell (x, y) has a fixed random-looking 64 bit key and the hash of a board is the XOR of the keys of its living cells,
+	 * so flipping a cell changes the hash by XORing its key in and engines can keep the hash up to date as cells change
+	 * Keys are mixed from the coordinates instead of read from a table, so boards of any size (and unbounded planes) work
+	 *
+	 * */
+
+	private BoardHash() {
+	}
+
+	public static long cellKey(int x, int y) {
+		/*
+		 * Returns the key of the cell at (x, y), the SplitMix64 finalizer of its packed coordinates
+		 *
+		 * */
+
+		long z = ((long) x << 32 | (y & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	public static long bitsKey(int x, int y, long bits) {
+		/*
+		 * Returns the XOR of the keys of the cells set in bits, bit i being the cell at (x + i, y)
+		 * Used by bit-packed engines on the words that changed
+		 *
+		 * */
+
+		long key = 0;
+		while (bits != 0) {
+			key ^= cellKey(x + Long.numberOfTrailingZeros(bits), y);
+			bits &= bits - 1;
+		}
+		return key;
+	}
+}
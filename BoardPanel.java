@@ -1,57 +1,546 @@
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
-
-import javax.swing.JPanel;
-
-/*
- * A class that extends the JPanel class, adding the functionality
- * of painting the current generation of a Game of Life.
- */
-public class BoardPanel extends JPanel{
-	private GameOfLife game;
-	private Color cellBorderColor;
-	
-	public BoardPanel(GameOfLife g, Color cellBorderColor){
-		game = g;
-		this.cellBorderColor = cellBorderColor;
-	}
-	
-	public BoardPanel(GameOfLife g){
-		this(g, Color.BLACK);
-	}
-	
-	/**
-	 * Paints the current state of the Game of Life board onto
-	 * this panel. This method is invoked for you each time you
-	 * call repaint() on either this object or on the JFrame upon
-	 * which this panel is placed.
-	 */
-	public void paintComponent(Graphics g){
-		Graphics2D g2 = (Graphics2D)g;
-		// TODO this is where you need to draw the current state of the board
-		int numSquaresX = game.getWidth();
-		int numSquaresY = game.getHeight();
-		int panelWidth = getWidth();
-		int panelHeight = getHeight();
-		int squareSideY, squareSideX;
-		squareSideX = panelWidth / numSquaresX;
-		squareSideY = panelHeight / numSquaresY;
-		for (int i = 0; i < numSquaresY; i++) {
-			for (int j = 0; j < numSquaresX; j++) {
-				if (game.isAlive(j, i)) {
-					g2.setColor(Color.WHITE);
-				}
-				else {
-					g2.setColor(Color.BLACK);
-				}
-				g2.fillRect(j * squareSideX, i * squareSideY, squareSideX, squareSideY);
-				g2.setColor(cellBorderColor);
-				g2.drawRect(j * squareSideX, i * squareSideY, squareSideX, squareSideY);
-				
-			}
-		}
-
-		
-	}
-}
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/*
+ * A class that extends the JPanel class, adding the functionality
+ * of painting the current generation of a Game of Life.
+ *
+ * The panel is a viewport onto the board that can be zoomed and panned.
+ * Zoomed in, every cell is a square of cellSide pixels. Zoomed out, every
+ * pixel shows the population density of a 2^level x 2^level block of
+ * cells, read from a DensityPyramid, so a view of any board costs as much
+ * as the view itself. Until the user zooms or pans, the view fits the
+ * whole board into the panel.
+ *
+ * The view is rendered into the int[] raster of a reusable panel-sized
+ * BufferedImage, which is blitted in a single drawImage call. Cell borders
+ * are drawn on top as grid lines, only when cells are large enough for
+ * them to be seen.
+ *
+ * The raster is kept up to date from the change sets of the game, so only
+ * the pixels of cells that changed are rendered again, and repaintChanges
+ * repaints only the rectangles around them. A panel should be the only
+ * consumer of its game's changes.
+ *
+ * The board can be any BoardSource: a GameOfLife stepped on the event
+ * dispatch thread, or a Simulation that steps it on a thread of its own
+ * and hands the panel finished frames.
+ *
+ * On an unbounded plane the view can be panned off the window, and zoomed
+ * out up to MAX_PLANE_LEVEL. Cells anywhere are read as block counts from
+ * the source's countBlocks, and since changes are only collected in the
+ * window, every paint renders the whole view from them.
+ */
+public class BoardPanel extends JPanel{
+	private static final int ALIVE_RGB = 0xFFFFFF; //White
+	private static final int DEAD_RGB = 0x000000; //Black
+	private static final int MIN_DENSITY_GRAY = 64; //Gray of a block with a single living cell, so lone cells stay visible
+	private static final int MIN_BORDER_SIDE = 4; //Smallest cell side in pixels that still gets a border
+	private static final int MAX_CELL_SIDE = 64; //Largest cell side zooming in goes to
+	private static final int ROW_GAP = 2; //Changed rows at most this many rows apart are repainted as one rectangle
+	private static final int MAX_RECTANGLES = 16; //More changed rectangles than this are repainted as their union
+	private static final int MAX_PLANE_LEVEL = 15; //Most zoomed out level on an unbounded plane, where a block count still fits an int
+	private static final int PLANE_LIMIT = 1 << 30; //The view's origin stays within this many cells of (0, 0) on an unbounded plane
+
+	private BoardSource game;
+	private Color cellBorderColor;
+	private boolean showBorders = true;
+
+	private int originX, originY; //Cell shown at the top left corner of the panel, a multiple of 2^level
+	private int cellSide = 1; //Side of a cell in pixels when zoomed in
+	private int level; //When zoomed out, each pixel shows a 2^level x 2^level block of cells, 0 when zoomed in
+	private boolean fit = true; //The view fits the whole board into the panel until the user zooms or pans
+	private int panX, panY; //Pixels dragged that do not add up to a whole cell or block yet
+	private boolean viewChanged = true; //The whole view has to be rendered again
+
+	private BufferedImage image; //Panel-sized, reallocated only when the panel is resized
+	private int[] pixels; //Raster of image, written directly
+	private long[] rowWords; //Bit-packed row read from the game
+	private long[][] blockRows; //Rows of a block row, when zoomed out below the pyramid's base level
+	private int[] blockCounts; //Counts of the blocks of a render, on an unbounded plane
+	private ChangeSet dirty; //Cells changed since they were last rendered
+	private DensityPyramid pyramid; //Built the first time the view zooms out far enough to use it
+
+	public BoardPanel(BoardSource g, Color cellBorderColor){
+		game = g;
+		this.cellBorderColor = cellBorderColor;
+	}
+
+	public BoardPanel(BoardSource g){
+		this(g, Color.BLACK);
+	}
+
+	/**
+	 * Turns the cell border overlay on or off. Even when on, borders
+	 * are only drawn once cells are at least MIN_BORDER_SIDE pixels wide.
+	 */
+	public void setShowBorders(boolean showBorders){
+		this.showBorders = showBorders;
+		repaint();
+	}
+
+	/**
+	 * Returns true if cell borders are drawn when cells are large enough.
+	 */
+	public boolean isShowBorders(){
+		return showBorders;
+	}
+
+	/**
+	 * Zooms in by the given number of steps, or out if steps is negative,
+	 * keeping the cell under panel pixel (x, y) where it is. Each step
+	 * doubles or halves the cell side, and below one pixel per cell each
+	 * step doubles or halves the block of cells a pixel shows.
+	 */
+	public void zoom(int steps, int x, int y){
+		//Cell under (x, y) before zooming
+		long cellX = originX + viewCells(x), cellY = originY + viewCells(y);
+		for (; steps > 0; steps--) {
+			if (level > 0) {
+				level--;
+			}
+			else {
+				cellSide = Math.min(cellSide * 2, MAX_CELL_SIDE);
+			}
+		}
+		for (; steps < 0; steps++) {
+			if (cellSide > 1) {
+				cellSide /= 2;
+			}
+			else if (level < maxLevel()) {
+				level++;
+			}
+		}
+		setOrigin(cellX - viewCells(x), cellY - viewCells(y));
+	}
+
+	/**
+	 * Moves the view by the given number of pixels, as if the board was
+	 * dragged by the mouse.
+	 */
+	public void pan(int dx, int dy){
+		panX -= dx;
+		panY -= dy;
+		int unitX = panX / pixelsPerUnit(), unitY = panY / pixelsPerUnit();
+		panX -= unitX * pixelsPerUnit();
+		panY -= unitY * pixelsPerUnit();
+		setOrigin(originX + ((long) unitX << level), originY + ((long) unitY << level));
+	}
+
+	/**
+	 * Fits the whole board into the panel again, and keeps it fitted
+	 * as the panel is resized until the user zooms or pans.
+	 */
+	public void fitToPanel(){
+		fit = true;
+		viewChanged = true;
+		repaint();
+	}
+
+	/**
+	 * Returns the board cell under panel pixel (x, y), the top left cell
+	 * of the block when zoomed out, or null if the pixel is not on the
+	 * board. Every pixel of the panel is on an unbounded plane.
+	 */
+	public Point getCellAt(int x, int y){
+		if (x < 0 || y < 0) {
+			return null;
+		}
+		long cellX = originX + viewCells(x), cellY = originY + viewCells(y);
+		if (game.isBounded() && (cellX >= game.getWidth() || cellY >= game.getHeight())) {
+			return null;
+		}
+		return new Point((int) cellX, (int) cellY);
+	}
+
+	/**
+	 * Paints the current state of the Game of Life board onto
+	 * this panel. This method is invoked for you each time you
+	 * call repaint() on either this object or on the JFrame upon
+	 * which this panel is placed.
+	 * Each paint is timed into Metrics.PAINT_TIME and LifeEvents.Paint
+	 * while either is enabled.
+	 */
+	public void paintComponent(Graphics g){
+		Graphics2D g2 = (Graphics2D)g;
+		if (getWidth() <= 0 || getHeight() <= 0) {
+			return;
+		}
+		Rectangle clip = g2.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		LifeEvents.Paint event = new LifeEvents.Paint();
+		boolean measured = Metrics.isEnabled() || event.isEnabled();
+		long start = measured ? System.nanoTime() : 0;
+		event.begin();
+
+		boolean full = ensureView() || !game.isBounded();
+		if (full) {
+			collectChanges();
+			dirty.clear();
+			render(0, 0, getWidth(), getHeight());
+		}
+		else {
+			//Cells changed by anything other than repaintChanges are repainted too, if they are outside of this paint
+			for (Rectangle r : updateChanges()) {
+				if (!clip.contains(r)) {
+					repaint(r);
+				}
+			}
+		}
+		g2.drawImage(image, 0, 0, null);
+
+		//Draws the borders as one line per row and column of cells instead of one rectangle per cell
+		if (showBorders && level == 0 && cellSide >= MIN_BORDER_SIDE) {
+			int right = getWidth(), bottom = getHeight();
+			if (game.isBounded()) {
+				right = Math.min((game.getWidth() - originX) * cellSide, right);
+				bottom = Math.min((game.getHeight() - originY) * cellSide, bottom);
+			}
+			int fromX = clip.x / cellSide, toX = Math.min(clip.x + clip.width, right) / cellSide;
+			int fromY = clip.y / cellSide, toY = Math.min(clip.y + clip.height, bottom) / cellSide;
+			g2.setColor(cellBorderColor);
+			for (int j = fromX; j <= toX; j++) {
+				g2.drawLine(j * cellSide, fromY * cellSide, j * cellSide, Math.min((toY + 1) * cellSide, bottom));
+			}
+			for (int i = fromY; i <= toY; i++) {
+				g2.drawLine(fromX * cellSide, i * cellSide, Math.min((toX + 1) * cellSide, right), i * cellSide);
+			}
+		}
+
+		if (measured) {
+			if (Metrics.isEnabled()) {
+				Metrics.PAINT_TIME.record(System.nanoTime() - start);
+			}
+			event.end();
+			if (event.shouldCommit()) {
+				event.clipWidth = clip.width;
+				event.clipHeight = clip.height;
+				event.full = full;
+				event.cellSide = cellSide;
+				event.level = level;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Repaints only the cells that changed since the last paint, as a
+	 * few rectangles around them. Call this instead of repaint() after
+	 * stepping or editing the game, so the cost of a frame follows the
+	 * activity on the board rather than its size. On the event dispatch
+	 * thread the rectangles are painted right away. On an unbounded plane
+	 * cells outside the window may have changed too, so the whole view is
+	 * repainted.
+	 */
+	public void repaintChanges(){
+		if (image == null || viewChanged || image.getWidth() != getWidth() || image.getHeight() != getHeight() || !game.isBounded()) {
+			repaint();
+			return;
+		}
+		for (Rectangle r : updateChanges()) {
+			if (SwingUtilities.isEventDispatchThread()) {
+				paintImmediately(r);
+			}
+			else {
+				repaint(r);
+			}
+		}
+	}
+
+	/**
+	 * Allocates the image for the panel's size and fits the board into
+	 * it if the view follows the panel. Returns true if the whole view
+	 * has to be rendered again.
+	 */
+	private boolean ensureView(){
+		int width = getWidth(), height = getHeight();
+		if (image == null || image.getWidth() != width || image.getHeight() != height) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			viewChanged = true;
+		}
+		if (dirty == null) {
+			rowWords = new long[(game.getWidth() + 63) >>> 6];
+			dirty = new ChangeSet(game.getWidth(), game.getHeight());
+		}
+		if (fit && viewChanged) {
+			int side = Math.min(width / Math.max(game.getWidth(), 1), height / Math.max(game.getHeight(), 1));
+			cellSide = Math.max(side, 1);
+			level = 0;
+			while (side == 0 && level < maxLevel() && (blocks(game.getWidth()) > width || blocks(game.getHeight()) > height)) {
+				level++;
+			}
+			originX = 0;
+			originY = 0;
+		}
+		boolean changed = viewChanged;
+		viewChanged = false;
+		return changed;
+	}
+
+	/**
+	 * Collects the cells the game changed into the dirty set, and brings
+	 * the density pyramid up to date with them.
+	 */
+	private void collectChanges(){
+		game.collectChanges(dirty);
+		if (pyramid != null) {
+			pyramid.update(dirty);
+		}
+	}
+
+	/**
+	 * Collects the changed cells, renders the pixels that show them and
+	 * returns the rectangles of the panel those pixels are in.
+	 */
+	private List<Rectangle> updateChanges(){
+		collectChanges();
+		List<Rectangle> rectangles = dirtyRectangles();
+		dirty.clear();
+		for (Rectangle r : rectangles) {
+			render(r.x, r.y, r.x + r.width, r.y + r.height);
+		}
+		return rectangles;
+	}
+
+	/**
+	 * Returns the rectangles of the panel that cover the dirty cells,
+	 * clipped to the panel. Changed rows close together share a rectangle
+	 * spanning all their changed columns, and too many rectangles are
+	 * merged into one.
+	 */
+	private List<Rectangle> dirtyRectangles(){
+		List<Rectangle> rectangles = new ArrayList<Rectangle>();
+		Rectangle panel = new Rectangle(0, 0, getWidth(), getHeight());
+		int i = dirty.getFirstRow();
+		while (i <= dirty.getLastRow()) {
+			if (!dirty.isChanged(i)) {
+				i++;
+				continue;
+			}
+			int top = i, bottom = i, left = dirty.getMinX(i), right = dirty.getMaxX(i);
+			for (i++; i <= dirty.getLastRow() && i <= bottom + ROW_GAP + 1; i++) {
+				if (dirty.isChanged(i)) {
+					bottom = i;
+					left = Math.min(left, dirty.getMinX(i));
+					right = Math.max(right, dirty.getMaxX(i));
+				}
+			}
+			Rectangle r;
+			if (level == 0) {
+				//One pixel more on the right and bottom covers the border line drawn there
+				r = new Rectangle((left - originX) * cellSide, (top - originY) * cellSide,
+						(right - left + 1) * cellSide + 1, (bottom - top + 1) * cellSide + 1);
+			}
+			else {
+				int fromX = (left >> level) - (originX >> level), fromY = (top >> level) - (originY >> level);
+				r = new Rectangle(fromX, fromY, (right >> level) - (left >> level) + 1, (bottom >> level) - (top >> level) + 1);
+			}
+			r = r.intersection(panel);
+			if (!r.isEmpty()) {
+				rectangles.add(r);
+			}
+		}
+		if (rectangles.size() > MAX_RECTANGLES) {
+			Rectangle union = rectangles.get(0);
+			for (Rectangle r : rectangles) {
+				union = union.union(r);
+			}
+			rectangles.clear();
+			rectangles.add(union);
+		}
+		return rectangles;
+	}
+
+	/**
+	 * Renders the pixels from (fromX, fromY) up to (toX, toY) of the view
+	 * into the raster. Pixels past the edge of the board get the panel's
+	 * background color.
+	 */
+	private void render(int fromX, int fromY, int toX, int toY){
+		if (!game.isBounded()) {
+			renderPlane(fromX, fromY, toX, toY);
+			return;
+		}
+		int width = image.getWidth();
+		int boardWidth = game.getWidth(), boardHeight = game.getHeight();
+		int background = getBackground().getRGB() & 0xFFFFFF;
+		if (level == 0) {
+			int cachedRow = -1;
+			for (int py = fromY; py < toY; py++) {
+				int offset = py * width;
+				int y = originY + py / cellSide;
+				if (y >= boardHeight) {
+					Arrays.fill(pixels, offset + fromX, offset + toX, background);
+					continue;
+				}
+				if (y != cachedRow) {
+					game.getRow(y, rowWords);
+					cachedRow = y;
+				}
+				for (int px = fromX; px < toX; px++) {
+					int x = originX + px / cellSide;
+					if (x >= boardWidth) {
+						pixels[offset + px] = background;
+						continue;
+					}
+					//Selects the color without branching, -1 keeps the ALIVE bits and 0 clears them
+					int alive = (int) (rowWords[x >>> 6] >>> x) & 1;
+					pixels[offset + px] = DEAD_RGB ^ (-alive & (ALIVE_RGB ^ DEAD_RGB));
+				}
+			}
+			return;
+		}
+
+		//Zoomed out, reads block counts from the pyramid, or counts them from the rows below its base level
+		int size = 1 << level;
+		if (level >= DensityPyramid.baseLevel(boardWidth, boardHeight) && pyramid == null) {
+			pyramid = new DensityPyramid(game);
+		}
+		boolean stored = pyramid != null && level >= pyramid.getBaseLevel();
+		if (!stored && (blockRows == null || blockRows.length < size)) {
+			blockRows = new long[size][rowWords.length];
+		}
+		for (int py = fromY; py < toY; py++) {
+			int offset = py * width;
+			int by = (originY >> level) + py;
+			if ((long) by << level >= boardHeight) {
+				Arrays.fill(pixels, offset + fromX, offset + toX, background);
+				continue;
+			}
+			int rows = Math.min(size, boardHeight - (by << level));
+			if (!stored) {
+				for (int r = 0; r < rows; r++) {
+					game.getRow((by << level) + r, blockRows[r]);
+				}
+			}
+			for (int px = fromX; px < toX; px++) {
+				int bx = (originX >> level) + px;
+				if ((long) bx << level >= boardWidth) {
+					pixels[offset + px] = background;
+					continue;
+				}
+				int count = 0;
+				if (stored) {
+					count = pyramid.count(level, bx, by);
+				}
+				else {
+					for (int r = 0; r < rows; r++) {
+						count += DensityPyramid.countBits(blockRows[r], bx << level, size);
+					}
+				}
+				pixels[offset + px] = densityRgb(count, (long) size * size);
+			}
+		}
+	}
+
+	/**
+	 * Renders the pixels from (fromX, fromY) up to (toX, toY) of a view
+	 * of an unbounded plane, from the counts of the blocks under them,
+	 * which are single cells when zoomed in.
+	 */
+	private void renderPlane(int fromX, int fromY, int toX, int toY){
+		int unit = pixelsPerUnit();
+		int fromColumn = fromX / unit, fromRow = fromY / unit;
+		int columns = (toX + unit - 1) / unit - fromColumn, rows = (toY + unit - 1) / unit - fromRow;
+		if (blockCounts == null || blockCounts.length < columns * rows) {
+			blockCounts = new int[columns * rows];
+		}
+		game.countBlocks(originX + (fromColumn << level), originY + (fromRow << level), level, columns, rows, blockCounts);
+		long area = 1L << (2 * level);
+		int width = image.getWidth();
+		for (int py = fromY; py < toY; py++) {
+			int offset = py * width, counts = (py / unit - fromRow) * columns - fromColumn;
+			for (int px = fromX; px < toX; px++) {
+				pixels[offset + px] = densityRgb(blockCounts[counts + px / unit], area);
+			}
+		}
+	}
+
+	/**
+	 * Returns the color of a block of area cells with count living ones:
+	 * black when empty, white when full, and grays in between that start
+	 * at MIN_DENSITY_GRAY. A single cell is ALIVE_RGB or DEAD_RGB.
+	 */
+	private static int densityRgb(int count, long area){
+		if (count == 0) {
+			return DEAD_RGB;
+		}
+		if (area == 1) {
+			return ALIVE_RGB;
+		}
+		return (MIN_DENSITY_GRAY + (int) ((255L - MIN_DENSITY_GRAY) * count / area)) * 0x010101;
+	}
+
+	/**
+	 * Moves the top left corner of the view to the given cell, kept on a
+	 * multiple of 2^level and so that the view does not leave the board
+	 * more than it has to. On an unbounded plane the view goes anywhere
+	 * within PLANE_LIMIT cells of (0, 0).
+	 */
+	private void setOrigin(long x, long y){
+		long minX = 0, minY = 0;
+		long maxX = Math.max(game.getWidth() - viewCells(getWidth()), 0);
+		long maxY = Math.max(game.getHeight() - viewCells(getHeight()), 0);
+		if (!game.isBounded()) {
+			minX = minY = -PLANE_LIMIT;
+			maxX = maxY = PLANE_LIMIT;
+		}
+		originX = (int) (Math.max(Math.min(x, maxX), minX) >> level << level);
+		originY = (int) (Math.max(Math.min(y, maxY), minY) >> level << level);
+		fit = false;
+		viewChanged = true;
+		repaint();
+	}
+
+	/**
+	 * Returns the number of cells across the given number of pixels.
+	 */
+	private long viewCells(int pixels){
+		return level > 0 ? (long) pixels << level : pixels / cellSide;
+	}
+
+	/**
+	 * Returns the number of pixels a cell (zoomed in) or block (zoomed
+	 * out) takes, the smallest amount the view can be panned by.
+	 */
+	private int pixelsPerUnit(){
+		return level > 0 ? 1 : cellSide;
+	}
+
+	/**
+	 * Returns the number of blocks of the current level that cover the
+	 * given number of cells.
+	 */
+	private long blocks(int cells){
+		return ((long) cells + (1L << level) - 1) >> level;
+	}
+
+	/**
+	 * Returns the level at which the whole board fits in a single pixel,
+	 * or MAX_PLANE_LEVEL on an unbounded plane.
+	 */
+	private int maxLevel(){
+		if (!game.isBounded()) {
+			return MAX_PLANE_LEVEL;
+		}
+		int max = 0;
+		while ((game.getWidth() - 1L) >> max > 0 || (game.getHeight() - 1L) >> max > 0) {
+			max++;
+		}
+		return max;
+	}
+}
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class BoardSnapshot {
+	/*
+	 * Compact binary checkpoints of a GameOfLife board, written and read through memory-mapped files
+	 *
+	 * Layout (little-endian):
+	 * 		magic "GOLS", int version, int width, int height, long generation,
+	 * 		short rule length, rule as ASCII, zero padding up to a multiple of 8 bytes,
+	 * 		then height rows of (width + 63) / 64 longs each, bit i of word k being the cell at x = 64 * k + i
+	 *
+	 * Rows go straight between the mapped file and the board one row buffer at a time,
+	 * so even a 65536 x 65536 board is saved and restored at disk speed without a copy of it on the heap
+	 *
+	 * */
+
+	private static final int MAGIC = 0x534C4F47; //"GOLS" read as a little-endian int
+	private static final int VERSION = 1;
+	private static final long MAX_MAPPING = 1L << 30; //Largest region mapped at once, files are mapped in chunks of rows
+
+	private BoardSnapshot() {
+	}
+
+	public static void write(GameOfLife game, Path path) throws IOException {
+		/*
+		 * Writes the board (the window of an unbounded engine), its generation and rule to path, replacing the file
+		 * Timed into Metrics.SNAPSHOT_WRITE_TIME and LifeEvents.Snapshot while either is enabled
+		 *
+		 * */
+
+		LifeEvents.Snapshot event = new LifeEvents.Snapshot();
+		boolean measured = Metrics.isEnabled() || event.isEnabled();
+		long start = measured ? System.nanoTime() : 0;
+		event.begin();
+		writeMapped(game, path);
+		if (measured) {
+			record(event, Metrics.SNAPSHOT_WRITE_TIME, start, "write", path, game);
+		}
+	}
+
+	public static GameOfLife read(Path path, int engineType) throws IOException {
+		/*
+		 * Reads a board written by write into a new GameOfLife of the given engine, generation included
+		 * Throws IllegalArgumentException if the file is not a snapshot, is corrupt or its rule can not run on the engine
+		 * Timed into Metrics.SNAPSHOT_READ_TIME and LifeEvents.Snapshot while either is enabled
+		 *
+		 * */
+
+		LifeEvents.Snapshot event = new LifeEvents.Snapshot();
+		boolean measured = Metrics.isEnabled() || event.isEnabled();
+		long start = measured ? System.nanoTime() : 0;
+		event.begin();
+		GameOfLife game = readMapped(path, engineType);
+		if (measured) {
+			record(event, Metrics.SNAPSHOT_READ_TIME, start, "read", path, game);
+		}
+		return game;
+	}
+
+	private static void record(LifeEvents.Snapshot event, Metrics.Histogram time, long start, String operation, Path path,
+			GameOfLife game) throws IOException {
+		/*
+		 * Records a write or read that started at start, in nanoseconds, into time and event
+		 *
+		 * */
+
+		if (Metrics.isEnabled()) {
+			time.record(System.nanoTime() - start);
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.path = path.toString();
+			event.width = game.getWidth();
+			event.height = game.getHeight();
+			event.size = Files.size(path);
+			event.commit();
+		}
+	}
+
+	private static void writeMapped(GameOfLife game, Path path) throws IOException {
+		/*
+		 * Writes the snapshot of game to path through mapped chunks of rows
+		 *
+		 * */
+
+		int width = game.getWidth(), height = game.getHeight();
+		int words = (width + 63) >>> 6;
+		byte[] rule = game.getRule().toString().getBytes(StandardCharsets.US_ASCII);
+		long headerSize = headerSize(rule.length);
+		long rowBytes = 8L * words;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putLong(game.getGen());
+			header.putShort((short) rule.length).put(rule);
+
+			long[] row = new long[words];
+			int rowsPerChunk = rowsPerChunk(rowBytes);
+			for (int y = 0; y < height; y += rowsPerChunk) {
+				int rows = Math.min(rowsPerChunk, height - y);
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, headerSize + y * rowBytes, rows * rowBytes);
+				LongBuffer longs = chunk.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				for (int i = 0; i < rows; i++) {
+					game.getRow(y + i, row);
+					longs.put(row);
+				}
+				chunk.force();
+			}
+		}
+	}
+
+	private static GameOfLife readMapped(Path path, int engineType) throws IOException {
+		/*
+		 * Reads the snapshot at path through mapped chunks of rows, see read
+		 *
+		 * */
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 1 << 16));
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.remaining() < 26 || header.getInt() != MAGIC) {
+				throw new IllegalArgumentException("Not a board snapshot: " + path);
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported snapshot version " + version + ": " + path);
+			}
+			int width = header.getInt(), height = header.getInt();
+			long gen = header.getLong();
+			int ruleLength = header.getShort();
+			if (width <= 0 || height <= 0 || ruleLength < 0 || ruleLength > header.remaining()) {
+				throw new IllegalArgumentException("Snapshot is corrupt: " + path);
+			}
+			byte[] rule = new byte[ruleLength];
+			header.get(rule);
+			LifeRule lifeRule = LifeRule.parse(new String(rule, StandardCharsets.US_ASCII));
+
+			int words = (width + 63) >>> 6;
+			long headerSize = headerSize(rule.length);
+			long rowBytes = 8L * words;
+			if (channel.size() < headerSize + height * rowBytes) {
+				throw new IllegalArgumentException("Snapshot is truncated: " + path);
+			}
+
+			GameOfLife game = new GameOfLife(width, height, engineType);
+			game.setRule(lifeRule);
+			long[] row = new long[words];
+			int rowsPerChunk = rowsPerChunk(rowBytes);
+			for (int y = 0; y < height; y += rowsPerChunk) {
+				int rows = Math.min(rowsPerChunk, height - y);
+				LongBuffer longs = channel.map(FileChannel.MapMode.READ_ONLY, headerSize + y * rowBytes, rows * rowBytes)
+						.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				for (int i = 0; i < rows; i++) {
+					longs.get(row);
+					game.setRow(y + i, row);
+				}
+			}
+			game.setGen(gen);
+			return game;
+		}
+	}
+
+	private static long headerSize(int ruleLength) {
+		/*
+		 * Returns the size of the header, padded so that rows start 8-byte aligned
+		 *
+		 * */
+
+		long size = 4 + 4 + 4 + 4 + 8 + 2 + ruleLength;
+		return (size + 7) & ~7L;
+	}
+
+	private static int rowsPerChunk(long rowBytes) {
+		/*
+		 * Returns how many rows fit in one mapping, at least one
+		 *
+		 * */
+
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, MAX_MAPPING / Math.max(1, rowBytes)));
+	}
+}
@@ -0,0 +1,86 @@
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+public interface BoardSource {
+	/*
+	 * A board that can be drawn: its size, its bit-packed rows and the cells that changed since it was last looked at
+	 * Implemented by GameOfLife itself, and by Simulation for a game that runs on its own thread
+	 *
+	 * */
+
+	int getWidth();
+
+	int getHeight();
+
+	void getRow(int y, long[] words); //Bit i of words[k] is the cell at x = 64 * k + i, words holds at least (getWidth() + 63) / 64 longs
+
+	void collectChanges(ChangeSet into); //Adds the cells changed since the last call, the whole board on the first call
+
+	default boolean isBounded() {
+		/*
+		 * Returns true if the board ends at its edges, false if it is an unbounded plane that is only shown through its window
+		 * Changes are only collected inside the window, cells outside of it are read with countBlocks
+		 *
+		 * */
+
+		return true;
+	}
+
+	default void countBlocks(int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Counts the living cells of columns x rows blocks of 2^level x 2^level cells into counts, row after row,
+		 * the first block having its top left corner at (x, y), a multiple of 2^level
+		 * level must be at most 15, so that the count of a block fits an int
+		 * Blocks past the edges of the board only count the cells they cover on it, unbounded sources override this to count anywhere
+		 *
+		 * */
+
+		Arrays.fill(counts, 0, columns * rows, 0);
+		long[] words = new long[(getWidth() + 63) >>> 6];
+		for (int r = 0; r < rows; r++) {
+			long top = y + ((long) r << level);
+			for (long cy = Math.max(top, 0); cy < Math.min(top + (1L << level), getHeight()); cy++) {
+				getRow((int) cy, words);
+				for (int c = 0; c < columns; c++) {
+					long cx = x + ((long) c << level);
+					if (cx >= 0 && cx < getWidth()) {
+						counts[r * columns + c] += DensityPyramid.countBits(words, (int) cx, 1 << level);
+					}
+				}
+			}
+		}
+	}
+
+	default int[] getLiveBounds() {
+		/*
+		 * Returns {minX, minY, maxX, maxY} of the living cells, or null if there are none
+		 * Scans the board one bit-packed row at a time, sources that know where their cells are override this
+		 *
+		 * */
+
+		return liveBounds(getWidth(), getHeight(), (words, y) -> getRow(y, words));
+	}
+
+	static int[] liveBounds(int width, int height, ObjIntConsumer<long[]> rows) {
+		/*
+		 * Returns {minX, minY, maxX, maxY} of the living cells of a width x height board, or null if there are none
+		 * rows copies row y into words, bit-packed like getRow; LifeEngine scans its rows with this too
+		 *
+		 * */
+
+		int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = -1, bottom = -1;
+		long[] words = new long[(width + 63) >>> 6];
+		for (int y = 0; y < height; y++) {
+			rows.accept(words, y);
+			for (int k = 0; k < words.length; k++) {
+				if (words[k] != 0) {
+					left = Math.min(left, 64 * k + Long.numberOfTrailingZeros(words[k]));
+					right = Math.max(right, 64 * k + 63 - Long.numberOfLeadingZeros(words[k]));
+					top = Math.min(top, y);
+					bottom = y;
+				}
+			}
+		}
+		return right < 0 ? null : new int[] {left, top, right, bottom};
+	}
+}
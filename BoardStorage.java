@@ -0,0 +1,66 @@
+public interface BoardStorage {
+	/*
+	 * Cells of a width x height board, read and written as primitives one cell or one bit-packed row at a time
+	 * GameOfLife keeps CELL_ENGINE's board in one of these, see GameOfLife.setStorage:
+	 * 		ByteStorage		one byte per cell
+	 * 		BitBoard		one bit per cell, rows of longs
+	 * 		SparseUniverse	64 x 64 bit tiles, only where there are living cells
+	 * 		GameBoard		a Cell object per cell, for code written against GamePiece
+	 * Every LifeEngine is a BoardStorage too
+	 *
+	 * */
+
+	int getWidth();
+
+	int getHeight();
+
+	boolean isAlive(int x, int y);
+
+	void setAlive(int x, int y, boolean alive);
+
+	default void setAliveRun(int x, int y, int length) {
+		/*
+		 * Sets length cells of row y to ALIVE, starting at x and going east
+		 * Storages that keep rows as bits or bytes override this to set whole words or runs at once
+		 *
+		 * */
+
+		for (int i = 0; i < length; i++) {
+			setAlive(x + i, y, true);
+		}
+	}
+
+	default void getRow(int y, long[] words) {
+		/*
+		 * Copies row y into words, bit-packed like BitBoard: bit i of words[k] is the cell at x = 64 * k + i
+		 * words must hold at least (getWidth() + 63) / 64 longs
+		 *
+		 * */
+
+		int count = (getWidth() + 63) >>> 6;
+		for (int k = 0; k < count; k++) {
+			long word = 0;
+			for (int i = 0; i < 64 && 64 * k + i < getWidth(); i++) {
+				if (isAlive(64 * k + i, y)) {
+					word |= 1L << i;
+				}
+			}
+			words[k] = word;
+		}
+	}
+
+	default void setRow(int y, long[] words) {
+		/*
+		 * Replaces row y with the bit-packed cells in words, in the same layout as getRow
+		 *
+		 * */
+
+		for (int x = 0; x < getWidth(); x++) {
+			setAlive(x, y, (words[x >>> 6] & (1L << x)) != 0);
+		}
+	}
+
+	void clear();
+
+	int countLivingCells();
+}
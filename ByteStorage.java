@@ -0,0 +1,150 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+public class ByteStorage implements BoardStorage {
+	/*
+	 * Board storage with one byte per cell, 1 for ALIVE and 0 for DEAD, row after row in a single array
+	 * Reading or writing a cell is one array access, with no object or cast in between
+	 *
+	 * */
+
+	public static final int MAX_CELLS = Integer.MAX_VALUE - 8; //Largest array a JVM allocates, so y * width + x never overflows
+
+	private static final VarHandle EIGHT_CELLS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN); //Reads 8 cells as one long
+	private static final long GATHER = 0x0102040810204080L; //Multiplying 8 cells by it moves cell j to bit 56 + j
+	private static final long[] SPREAD = new long[256]; //Byte j of SPREAD[b] is bit j of b
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			for (int j = 0; j < 8; j++) {
+				SPREAD[b] |= (long) ((b >>> j) & 1) << (8 * j);
+			}
+		}
+	}
+
+	private final int width, height;
+	private final byte[] cells; //Index y * width + x
+
+	public ByteStorage(int width, int height) {
+		/*
+		 * Constructs an empty storage with specified width and height
+		 * If the board has more than MAX_CELLS cells, IllegalArgumentException is thrown
+		 *
+		 * */
+
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException();
+		}
+		if ((long) width * height > MAX_CELLS) {
+			throw new IllegalArgumentException("A " + width + "x" + height + " board has more than the " + MAX_CELLS + " cells a byte storage holds");
+		}
+		this.width = width;
+		this.height = height;
+		this.cells = new byte[width * height];
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the board
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the board
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public boolean isAlive(int x, int y) {
+		/*
+		 * Returns true if the cell at (x, y) is alive
+		 *
+		 * */
+
+		return cells[y * width + x] != 0;
+	}
+
+	public void setAlive(int x, int y, boolean alive) {
+		/*
+		 * Sets the cell at (x, y) to ALIVE or DEAD
+		 *
+		 * */
+
+		cells[y * width + x] = (byte) (alive ? 1 : 0);
+	}
+
+	public void setAliveRun(int x, int y, int length) {
+		/*
+		 * Sets length cells of row y to ALIVE, starting at x and going east
+		 *
+		 * */
+
+		Arrays.fill(cells, y * width + x, y * width + x + length, (byte) 1);
+	}
+
+	public void getRow(int y, long[] words) {
+		/*
+		 * Packs row y into words, 64 bytes into each word, 8 at a time
+		 *
+		 * */
+
+		int row = y * width;
+		for (int k = 0; k < (width + 63) >>> 6; k++) {
+			long word = 0;
+			int i = 0;
+			for (; i + 8 <= 64 && 64 * k + i + 8 <= width; i += 8) {
+				word |= ((long) EIGHT_CELLS.get(cells, row + 64 * k + i) * GATHER >>> 56) << i;
+			}
+			for (; i < 64 && 64 * k + i < width; i++) {
+				word |= (long) cells[row + 64 * k + i] << i;
+			}
+			words[k] = word;
+		}
+	}
+
+	public void setRow(int y, long[] words) {
+		/*
+		 * Unpacks words into row y, 8 cells at a time
+		 *
+		 * */
+
+		int row = y * width;
+		int x = 0;
+		for (; x + 8 <= width; x += 8) {
+			EIGHT_CELLS.set(cells, row + x, SPREAD[(int) (words[x >>> 6] >>> x) & 0xFF]);
+		}
+		for (; x < width; x++) {
+			cells[row + x] = (byte) ((words[x >>> 6] >>> x) & 1);
+		}
+	}
+
+	public void clear() {
+		/*
+		 * Sets every cell to DEAD
+		 *
+		 * */
+
+		Arrays.fill(cells, (byte) 0);
+	}
+
+	public int countLivingCells() {
+		/*
+		 * Counts the living cells, one byte at a time
+		 *
+		 * */
+
+		int numAlive = 0;
+		for (byte cell : cells) {
+			numAlive += cell;
+		}
+		return numAlive;
+	}
+}
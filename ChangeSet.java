@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+public class ChangeSet {
+	/*
+	 * Cells of a width x height board that changed, kept as one span of columns per row
+	 * A span covers every changed cell of its row and may cover unchanged cells in between,
+	 * which keeps adding a cell O(1) and is all a renderer needs to find the rectangles to repaint
+	 * Cells outside the board are ignored, so unbounded engines report only the changes in their window
+	 *
+	 * */
+
+	private final int width, height;
+	private final int[] minX, maxX; //Span of changed cells in each row, maxX < minX when the row is unchanged
+	private int firstRow = Integer.MAX_VALUE, lastRow = -1; //Range of the changed rows, lastRow < firstRow when nothing changed
+
+	public ChangeSet(int width, int height) {
+		/*
+		 * Constructs an empty change set for a board with specified width and height
+		 *
+		 * */
+
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.width = width;
+		this.height = height;
+		this.minX = new int[height];
+		this.maxX = new int[height];
+		Arrays.fill(minX, Integer.MAX_VALUE);
+		Arrays.fill(maxX, -1);
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the board
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the board
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public void add(int x, int y) {
+		/*
+		 * Marks the cell at (x, y) as changed
+		 *
+		 * */
+
+		addSpan(y, x, x);
+	}
+
+	public void addSpan(int y, int fromX, int toX) {
+		/*
+		 * Marks the cells fromX to toX (inclusive) of row y as changed
+		 *
+		 * */
+
+		fromX = Math.max(fromX, 0);
+		toX = Math.min(toX, width - 1);
+		if (y < 0 || y >= height || fromX > toX) {
+			return;
+		}
+		minX[y] = Math.min(minX[y], fromX);
+		maxX[y] = Math.max(maxX[y], toX);
+		firstRow = Math.min(firstRow, y);
+		lastRow = Math.max(lastRow, y);
+	}
+
+	public void addAll() {
+		/*
+		 * Marks every cell of the board as changed
+		 *
+		 * */
+
+		for (int y = 0; y < height; y++) {
+			addSpan(y, 0, width - 1);
+		}
+	}
+
+	public void addAll(ChangeSet other) {
+		/*
+		 * Marks every cell that is marked in other as changed, other must be for a board of the same size
+		 *
+		 * */
+
+		if (other.width != width || other.height != height) {
+			throw new IllegalArgumentException("Change sets are for boards of different sizes");
+		}
+		for (int y = other.firstRow; y <= other.lastRow; y++) {
+			if (other.maxX[y] >= 0) {
+				addSpan(y, other.minX[y], other.maxX[y]);
+			}
+		}
+	}
+
+	public void clear() {
+		/*
+		 * Marks every cell as unchanged
+		 *
+		 * */
+
+		if (lastRow < 0) {
+			return;
+		}
+		Arrays.fill(minX, firstRow, lastRow + 1, Integer.MAX_VALUE);
+		Arrays.fill(maxX, firstRow, lastRow + 1, -1);
+		firstRow = Integer.MAX_VALUE;
+		lastRow = -1;
+	}
+
+	public boolean isEmpty() {
+		/*
+		 * Returns true if no cell is marked as changed
+		 *
+		 * */
+
+		return lastRow < 0;
+	}
+
+	public int getFirstRow() {
+		/*
+		 * Returns the first changed row, Integer.MAX_VALUE if nothing changed
+		 *
+		 * */
+
+		return this.firstRow;
+	}
+
+	public int getLastRow() {
+		/*
+		 * Returns the last changed row, -1 if nothing changed
+		 *
+		 * */
+
+		return this.lastRow;
+	}
+
+	public boolean isChanged(int y) {
+		/*
+		 * Returns true if a cell of row y is marked as changed
+		 *
+		 * */
+
+		return maxX[y] >= 0;
+	}
+
+	public int getMinX(int y) {
+		/*
+		 * Returns the first column of the span of row y, Integer.MAX_VALUE if the row is unchanged
+		 *
+		 * */
+
+		return minX[y];
+	}
+
+	public int getMaxX(int y) {
+		/*
+		 * Returns the last column of the span of row y, -1 if the row is unchanged
+		 *
+		 * */
+
+		return maxX[y];
+	}
+}
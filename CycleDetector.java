@@ -0,0 +1,137 @@
+public class CycleDetector {
+	/*
+	 * Detects when a board has settled into a still life or an oscillator from the hashes of its recent generations
+	 *
+	 * The hashes of the last few generations are kept in a ring buffer; when a new hash matches one of them
+	 * the board has most likely returned to an earlier state, and since the rules are deterministic it will repeat from there
+	 * Periods longer than the history are not detected
+	 * A 64 bit hash can collide, so once a period is found every following generation is checked against it
+	 * and the period is dropped if a generation breaks it; the cycle only counts as confirmed, and safe to skip ahead in,
+	 * once a whole period of generations stepped after it was found repeated it
+	 *
+	 * */
+
+	private final long[] hashes; //Hash of recorded step s is at index s % hashes.length
+	private long steps; //Number of generations recorded
+	private long firstStep; //Oldest step the ring buffer can still hold, moves forward on reset
+	private long period; //0 while no cycle is known
+	private long start = -1; //Generation the cycle started at, -1 while no cycle is known
+	private long matched; //Generations recorded since the period was found that repeated it
+
+	public CycleDetector(int history) {
+		/*
+		 * Constructs a detector that remembers the hashes of the last history generations
+		 * Throws IllegalArgumentException if history is not positive
+		 *
+		 * */
+
+		if (history <= 0) {
+			throw new IllegalArgumentException("History must hold at least one generation");
+		}
+		this.hashes = new long[history];
+	}
+
+	public boolean record(long gen, long hash) {
+		/*
+		 * Records the hash of the board at generation gen, which must directly follow the last recorded generation
+		 * Returns true if a cycle is known after this generation
+		 *
+		 * */
+
+		if (period > 0) {
+			if (steps - period >= oldestStep() && hash != hashAt(steps - period)) {
+				period = 0; //The match was a collision
+				start = -1;
+			}
+			else {
+				matched++;
+			}
+		}
+		else {
+			//Looks for the most recent generation with the same hash, which gives the shortest period
+			for (long s = steps - 1; s >= oldestStep(); s--) {
+				if (hashAt(s) == hash) {
+					period = steps - s;
+					matched = 0;
+
+					//Walks back to the first recorded generation that already repeats with this period
+					long first = s;
+					while (first - 1 >= oldestStep() && hashAt(first - 1) == hashAt(first - 1 + period)) {
+						first--;
+					}
+					start = gen - (steps - first);
+					break;
+				}
+			}
+		}
+
+		hashes[(int) (steps % hashes.length)] = hash;
+		steps++;
+		return period > 0;
+	}
+
+	public void reset() {
+		/*
+		 * Forgets every recorded generation, used when the board is edited
+		 *
+		 * */
+
+		firstStep = steps;
+		period = 0;
+		start = -1;
+	}
+
+	public long getPeriod() {
+		/*
+		 * Returns the period of the cycle the board is in, 1 for a still life, or 0 if no cycle was found
+		 *
+		 * */
+
+		return this.period;
+	}
+
+	public boolean isConfirmed() {
+		/*
+		 * Returns true if a cycle is known and the generations stepped since it was found repeated a whole period of it
+		 *
+		 * */
+
+		return period > 0 && matched >= period;
+	}
+
+	public long getStart() {
+		/*
+		 * Returns the first generation of the cycle, as far back as the history reaches, or -1 if no cycle was found
+		 *
+		 * */
+
+		return this.start;
+	}
+
+	public int getHistory() {
+		/*
+		 * Returns how many generations are remembered
+		 *
+		 * */
+
+		return hashes.length;
+	}
+
+	private long oldestStep() {
+		/*
+		 * Returns the oldest step still in the ring buffer
+		 *
+		 * */
+
+		return Math.max(firstStep, steps - hashes.length);
+	}
+
+	private long hashAt(long step) {
+		/*
+		 * Returns the hash recorded at the given step, which must still be in the ring buffer
+		 *
+		 * */
+
+		return hashes[(int) (step % hashes.length)];
+	}
+}
@@ -0,0 +1,208 @@
+public class DensityPyramid {
+	/*
+	 * Mip-style pyramid of population counts, used to draw a zoomed out board as one density pixel per block of cells
+	 *
+	 * Level l holds the number of living cells in every aligned 2^l x 2^l block of the board
+	 * The lowest stored level is counted from the bit-packed rows of the game, each level above sums 4 blocks of the one below,
+	 * so any block of any stored level is a single array read and drawing a zoomed out view costs as much as the view
+	 * Levels below the base are cheap to count from the rows directly and are not stored
+	 * The base level is raised on very large boards, so the pyramid never holds more than MAX_BLOCKS blocks per level
+	 *
+	 * The pyramid is kept up to date from the change sets of the game: only the blocks around changed cells are counted again
+	 *
+	 * */
+
+	public static final int MIN_BASE_LEVEL = 3; //8 x 8 blocks
+	private static final long MAX_BLOCKS = 1 << 22;
+
+	private final BoardSource game;
+	private final int width, height;
+	private final int baseLevel, topLevel;
+	private final int[][] counts; //counts[l - baseLevel][by * columns + bx] is the population of block (bx, by) of level l
+	private final int[] columns, rows; //Number of blocks across and down on each stored level
+	private final ChangeSet[] dirty; //Blocks of each stored level to count again
+	private final long[][] blockRows; //Rows of the base level block row being counted
+
+	public DensityPyramid(BoardSource game) {
+		/*
+		 * Constructs the pyramid of the board of game and counts every block
+		 *
+		 * */
+
+		this.game = game;
+		this.width = game.getWidth();
+		this.height = game.getHeight();
+		this.baseLevel = baseLevel(width, height);
+		int top = baseLevel;
+		while (blocks(width, top) > 1 || blocks(height, top) > 1) {
+			top++;
+		}
+		this.topLevel = top;
+
+		int levels = topLevel - baseLevel + 1;
+		this.counts = new int[levels][];
+		this.columns = new int[levels];
+		this.rows = new int[levels];
+		this.dirty = new ChangeSet[levels];
+		for (int i = 0; i < levels; i++) {
+			columns[i] = blocks(width, baseLevel + i);
+			rows[i] = blocks(height, baseLevel + i);
+			counts[i] = new int[columns[i] * rows[i]];
+			dirty[i] = new ChangeSet(columns[i], rows[i]);
+		}
+		this.blockRows = new long[1 << baseLevel][(width + 63) >>> 6];
+
+		//Blocks outside the living cells' bounding box are empty and need no counting
+		int[] box = game.getLiveBounds();
+		if (box != null) {
+			for (int by = box[1] >> baseLevel; by <= box[3] >> baseLevel; by++) {
+				dirty[0].addSpan(by, box[0] >> baseLevel, box[2] >> baseLevel);
+			}
+		}
+		recount();
+	}
+
+	public static int baseLevel(int width, int height) {
+		/*
+		 * Returns the lowest level stored for a board of the given size
+		 *
+		 * */
+
+		int level = MIN_BASE_LEVEL;
+		while ((long) blocks(width, level) * blocks(height, level) > MAX_BLOCKS) {
+			level++;
+		}
+		return level;
+	}
+
+	public int getBaseLevel() {
+		/*
+		 * Returns the lowest stored level
+		 *
+		 * */
+
+		return this.baseLevel;
+	}
+
+	public int getTopLevel() {
+		/*
+		 * Returns the level at which the whole board is a single block
+		 *
+		 * */
+
+		return this.topLevel;
+	}
+
+	public int count(int level, int bx, int by) {
+		/*
+		 * Returns the number of living cells in block (bx, by) of the given level, 0 for blocks outside the board
+		 * Throws IllegalArgumentException if the level is not stored
+		 *
+		 * */
+
+		if (level < baseLevel || level > topLevel) {
+			throw new IllegalArgumentException("Level " + level + " is not stored, levels are " + baseLevel + " to " + topLevel);
+		}
+		int i = level - baseLevel;
+		if (bx < 0 || by < 0 || bx >= columns[i] || by >= rows[i]) {
+			return 0;
+		}
+		return counts[i][by * columns[i] + bx];
+	}
+
+	public void update(ChangeSet changes) {
+		/*
+		 * Counts the blocks that hold a changed cell again, changes must be for a board of the game's size
+		 *
+		 * */
+
+		for (int y = changes.getFirstRow(); y <= changes.getLastRow(); y++) {
+			if (changes.isChanged(y)) {
+				dirty[0].addSpan(y >> baseLevel, changes.getMinX(y) >> baseLevel, changes.getMaxX(y) >> baseLevel);
+			}
+		}
+		recount();
+	}
+
+	public static int countBits(long[] row, int from, int size) {
+		/*
+		 * Returns the number of living cells from x = from to from + size - 1 of a bit-packed row,
+		 * where size is a power of two and from is a multiple of it, so a block smaller than a word is inside one word
+		 *
+		 * */
+
+		if (size < 64) {
+			return (from >>> 6) < row.length ? Long.bitCount((row[from >>> 6] >>> (from & 63)) & ((1L << size) - 1)) : 0;
+		}
+		int count = 0;
+		for (int k = from >>> 6; k < Math.min((from + size) >>> 6, row.length); k++) {
+			count += Long.bitCount(row[k]);
+		}
+		return count;
+	}
+
+	private void recount() {
+		/*
+		 * Counts the dirty blocks of the base level from the rows of the game, then sums the blocks above them level by level
+		 *
+		 * */
+
+		ChangeSet base = dirty[0];
+		int size = 1 << baseLevel;
+		for (int by = base.getFirstRow(); by <= base.getLastRow(); by++) {
+			if (!base.isChanged(by)) {
+				continue;
+			}
+			int fromY = by << baseLevel, toY = Math.min(fromY + size, height);
+			for (int y = fromY; y < toY; y++) {
+				game.getRow(y, blockRows[y - fromY]);
+			}
+			for (int bx = base.getMinX(by); bx <= base.getMaxX(by); bx++) {
+				int count = 0;
+				for (int y = fromY; y < toY; y++) {
+					count += countBits(blockRows[y - fromY], bx << baseLevel, size);
+				}
+				counts[0][by * columns[0] + bx] = count;
+			}
+		}
+
+		for (int i = 1; i < counts.length; i++) {
+			ChangeSet below = dirty[i - 1];
+			for (int by = below.getFirstRow(); by <= below.getLastRow(); by++) {
+				if (below.isChanged(by)) {
+					dirty[i].addSpan(by >> 1, below.getMinX(by) >> 1, below.getMaxX(by) >> 1);
+				}
+			}
+			below.clear();
+			ChangeSet level = dirty[i];
+			for (int by = level.getFirstRow(); by <= level.getLastRow(); by++) {
+				if (!level.isChanged(by)) {
+					continue;
+				}
+				for (int bx = level.getMinX(by); bx <= level.getMaxX(by); bx++) {
+					counts[i][by * columns[i] + bx] = child(i - 1, 2 * bx, 2 * by) + child(i - 1, 2 * bx + 1, 2 * by)
+							+ child(i - 1, 2 * bx, 2 * by + 1) + child(i - 1, 2 * bx + 1, 2 * by + 1);
+				}
+			}
+		}
+		dirty[counts.length - 1].clear();
+	}
+
+	private int child(int i, int bx, int by) {
+		/*
+		 * Returns the count of block (bx, by) of stored level i, 0 past the edge of the board
+		 *
+		 * */
+
+		return bx < columns[i] && by < rows[i] ? counts[i][by * columns[i] + bx] : 0;
+	}
+
+	private static int blocks(int cells, int level) {
+		/*
+		 * Returns the number of 2^level blocks needed to cover the given number of cells, at least 1
+		 *
+		 * */
+
+		return Math.max((int) (((long) cells + (1L << level) - 1) >> level), 1);
+	}
+}
@@ -0,0 +1,157 @@
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+public class DiffPublisher implements Flow.Publisher<GenerationDiff> {
+	/*
+	 * Hands the GenerationDiffs of a GameOfLife to its subscribers, with backpressure
+	 *
+	 * Each subscription delivers diffs only as far as its subscriber requested them
+	 * Diffs published while a subscriber has no outstanding demand are merged into the one it will get next,
+	 * so a slow subscriber never holds up the game and never queues more than one diff
+	 *
+	 * Diffs are delivered on the thread that steps the game, or on the thread that requests more when one was waiting
+	 * Calls to a subscriber are never concurrent, and a subscriber may request more from within onNext
+	 *
+	 * */
+
+	private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	private final class Subscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super GenerationDiff> subscriber;
+		private long demand; //Diffs requested and not delivered yet
+		private GenerationDiff pending; //Diffs published since the last delivery, merged
+		private Throwable error; //Error to deliver before anything else, which ends the subscription
+		private boolean delivering, cancelled;
+
+		Subscription(Flow.Subscriber<? super GenerationDiff> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (n <= 0) {
+					if (error == null) {
+						error = new IllegalArgumentException("A subscriber must request a positive number of diffs: " + n);
+					}
+				}
+				else {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				}
+			}
+			deliver();
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				cancelled = true;
+				pending = null;
+			}
+			subscriptions.remove(this);
+		}
+
+		void offer(GenerationDiff diff) {
+			/*
+			 * Adds a published diff to the pending one and delivers it if there is demand
+			 *
+			 * */
+
+			synchronized (this) {
+				if (cancelled) {
+					return;
+				}
+				pending = pending == null ? diff : pending.merge(diff);
+			}
+			deliver();
+		}
+
+		private void deliver() {
+			/*
+			 * Delivers the pending diff while there is demand, outside the lock so the subscriber may call back in
+			 * A pending error is delivered first and cancels the subscription
+			 * Only one thread delivers at a time, a thread that finds another one delivering leaves the work to it
+			 *
+			 * */
+
+			while (true) {
+				GenerationDiff diff = null;
+				Throwable failure;
+				synchronized (this) {
+					if (delivering || cancelled) {
+						return;
+					}
+					failure = error;
+					if (failure != null) {
+						error = null;
+						cancelled = true;
+						pending = null;
+					}
+					else if (pending == null || demand == 0) {
+						return;
+					}
+					else {
+						diff = pending;
+						pending = null;
+						demand--;
+					}
+					delivering = true;
+				}
+				if (failure != null) {
+					try {
+						subscriptions.remove(this);
+						subscriber.onError(failure);
+					} finally {
+						synchronized (this) {
+							delivering = false;
+						}
+					}
+					return;
+				}
+				try {
+					subscriber.onNext(diff);
+				} catch (RuntimeException e) {
+					cancel();
+					subscriber.onError(e);
+					return;
+				} finally {
+					synchronized (this) {
+						delivering = false;
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super GenerationDiff> subscriber) {
+		/*
+		 * Adds a subscriber, it receives the diffs published from now on
+		 *
+		 * */
+
+		Subscription subscription = new Subscription(subscriber);
+		subscriptions.add(subscription);
+		subscriber.onSubscribe(subscription);
+	}
+
+	public boolean hasSubscribers() {
+		/*
+		 * Returns true if a subscription has not been cancelled yet
+		 *
+		 * */
+
+		return !subscriptions.isEmpty();
+	}
+
+	public void publish(GenerationDiff diff) {
+		/*
+		 * Offers diff to every subscriber
+		 *
+		 * */
+
+		for (Subscription subscription : subscriptions) {
+			subscription.offer(diff);
+		}
+	}
+}
@@ -1,312 +1,1596 @@
-
-public class GameOfLife {
-	/* 
-	 * Engine for the Game of Life 
-	 * 
-	 * */
-
-	private GameBoard board;
-	private int gen;
-	
-	//Constants that set rules of the game
-	private static final int LONELINESS_UPPER_THRESHOLD = 1;
-	private static final int BIRTH_VALUE = 3;
-	private static final int OVERCROWDING_LOWER_THRESHOLD = 4;
-	
-	//Assign Cell state constants
-	private static final int DEAD_CELL = Cell.DEAD;
-	private static final int ALIVE_CELL = Cell.ALIVE;
-			
-	public String toString() {
-		/* 
-		 * Returns string representation of a GameOfLife board
-		 * 
-		 **/
-		
-		return board.toString();
-	}
-	
-	public GameOfLife(int width, int height) {
-		/* 
-		 * Constructs a new GameOfLife with specified height and width
-		 * Fills with DEAD cells
-		 * 
-		 **/
-		
-		board = new GameBoard(width, height);
-		clear(); //Sets all the cells to be dead
-		gen = 0;
-	}
-	
-	public GameOfLife(int width) {
-		/* 
-		 * Constructs a square GameOfLife with specified side length
-		 * Fills with DEAD cells
-		 * 
-		 **/
-		
-		this(width, width);
-	}
-	
-	public GameOfLife(Cell[][] initialSetup) {
-		/* 
-		 * Constructs a new GameOfLife based on given preset board of Cells
-		 * 
-		 **/
-
-		//Copies contents of given board into instance board, not just the reference
-		this.board = new GameBoard(initialSetup[0].length, initialSetup.length);
-		for (int i = 0; i < initialSetup[0].length; i++) {
-			for (int j = 0; j < initialSetup.length; j++) {
-				board.setPiece(i, j, initialSetup[j][i]);
-			}
-		}
-		gen = 0;
-	}
-	
-	public GameOfLife() {
-		/* 
-		 * Default constructor for GameOfLife
-		 * Creates a 50 x 50 board
-		 * 
-		 **/
-
-		this(50, 50);
-	}
-	public boolean isAlive(int x, int y) {
-		/* 
-		 * Returns whether cell at specified location is Alive
-		 * 
-		 **/
-
-		return ((Cell)this.board.getPiece(x, y)).isAlive();
-	}
-	public int countLivingNeighbors(int x, int y) {
-		/* 
-		 * Counts the number of living neighbors cell at specified location has
-		 * Returns -1 if given location is invalid
-		 * 
-		 **/
-
-		//2-D array of 'shifts' that represent each of a cell's neighbors
-		final int[][] NEIGHBORS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {1, 1}, {1, -1}, {-1, 1}};
-		
-		if (isValidCoordinate(x, y)) {
-			int neighbors = 0;
-			
-			//Loops through each of the neighbor shifts and checks if neighboring cell is alive
-			for (int[] shift : NEIGHBORS) { 
-				//Makes sure it doesn't access a 'neighbor' cell outside the board
-				if (this.isValidCoordinate(x + shift[0], y + shift[1]) && this.isAlive(x + shift[0], y + shift[1])) {
-					neighbors++;
-				}
-			}
-			return neighbors; //returns neighbor counter
-		}
-		return -1; //Return value for invalid input
-	}
-	
-	public int countLivingCells() {
-		/* 
-		 * Counts the number of living cells on the board currently
-		 * 
-		 **/
-
-		int numAlive = 0;
-		for (int i = 0; i < board.getHeight(); i++) {
-			for (int j = 0; j < board.getWidth(); j++) {
-				if (((Cell)this.board.getPiece(j, i)).isAlive()) {
-					numAlive++;
-				}
-			}
-		}
-		return numAlive;
-	}
-	
-	public void randomSetup() {
-		/* 
-		 * Randomizes the state of the board, 50% probability of either state on each cell
-		 * Resets generation counter (since it effectively starts a brand new game)
-		 * 
-		 **/
-
-		this.gen = 0;
-		for (int i = 0; i < board.getHeight(); i++) {
-			for (int j = 0; j < board.getWidth(); j++) {
-				int randomState = (int)(Math.random() * 2); //Generates either 0 or 1
-				this.board.setPiece(j, i, new Cell(randomState));	
-			}
-
-		}
-	}
-	
-	
-	public void clear() {
-		/* 
-		 * Clears board by setting all the cells to DEAD
-		 * Resets generation counter (since it effectively starts a brand new game)
-		 * 
-		 **/
-
-		for (int i = 0; i < board.getHeight(); i++) {
-			for (int j = 0; j < board.getWidth(); j++) {
-				this.board.setPiece(j, i, new Cell(DEAD_CELL));
-			}
-		}
-		this.gen = 0;
-	}
-	
-	private boolean isValidCoordinate(int x, int y) {
-		/* 
-		 * Private helper method that checks if given location is valid for the current GameOfLife board
-		 * 
-		 **/
-
-		return x >= 0 && x < board.getWidth() && y >= 0 && y < board.getHeight();
-	}
-	
-	public void changeState(int x, int y) {
-		/* 
-		 * Toggles state from DEAD to ALIVE or from ALIVE to DEAD
-		 * Does not do anything if location is invalid
-		 * 
-		 **/
-
-		if (isValidCoordinate(x, y)) {
-			if (this.isAlive(x, y)) {
-				this.setCell(x, y, DEAD_CELL);
-			}
-			else {
-				this.setCell(x, y, ALIVE_CELL);
-			}
-		}
-	}
-	
-	public Cell setCell(int x, int y, int value) {
-		/* 
-		 * Sets cell at given location to the given value
-		 * Returns cell that was replaced
-		 * If location is invalid null is returned
-		 * If value other than ALIVE or DEAD is given, IllegalArgumentException is thrown
-		 * 
-		 **/
-		
-		if (value != ALIVE_CELL && value != DEAD_CELL) {
-			throw new IllegalArgumentException();
-		}
-		else if (!isValidCoordinate(x, y)) {
-			return null;
-
-		}
-		Cell temp = (Cell) this.board.getPiece(x, y);
-		board.setPiece(x, y, new Cell(value));
-		return temp;
-
-	}
-	
-	public boolean willbeAlive(int x, int y) {
-		/* 
-		 * Returns true if a given cell will be alive in the next generation
-		 * 
-		 * Any live cell with fewer than two live neighbors dies, as if by underpopulation.
-		 * Any live cell with two or three live neighbors lives on to the next generation.
-		 * Any live cell with more than three live neighbors dies, as if by overpopulation.
-		 * Any dead cell with exactly three live neighbors becomes a live cell, as if by reproduction.
-		 * 
-		 **/
-		
-		if (isValidCoordinate(x, y)) {
-			boolean isAlive = ((Cell) board.getPiece(x, y)).isAlive();
-			int neighbors = this.countLivingNeighbors(x, y);
-			
-			if (!isAlive && neighbors != BIRTH_VALUE) {
-				return false;
-			}
-			else if (!isAlive && neighbors == BIRTH_VALUE) {
-				return true;
-			}
-			else if (isAlive && neighbors >= OVERCROWDING_LOWER_THRESHOLD) {
-				return false;
-			}
-			else if (isAlive && neighbors <= LONELINESS_UPPER_THRESHOLD) {
-				return false;
-			}
-			else {
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	public int getWidth() {
-		/* 
-		 * Returns width of GameOfLife's board
-		 * 
-		 **/
-		
-		return this.board.getWidth();
-	}
-	
-	public int getHeight() {
-		/* 
-		 * Returns height of GameOfLife's board
-		 * 
-		 **/
-		
-		return this.board.getHeight();
-	}
-	
-	public void nextGen() {
-		/* 
-		 * Updates the board to the next generation of the game
-		 * 
-		 **/
-		
-		//Creates array that represents next generation
-		Cell[][] nextGenBoard = new Cell[this.board.getHeight()][this.board.getWidth()];
-		
-		//Loops through each of the current board values
-		for (int i = 0; i < this.board.getHeight(); i++) {
-			for (int j = 0; j < this.board.getWidth(); j++) {
-				//Checks if it will be alive in the next generation
-				if (this.willbeAlive(j, i)) {
-					//Updates nextGenBoard with value it will hold in the next generation
-					nextGenBoard[i][j] = new Cell(ALIVE_CELL);
-				}
-				else {
-					nextGenBoard[i][j] = new Cell(DEAD_CELL);
-				}
-			}
-		}
-		
-		//Updates current board with next generation board
-		this.board = new GameBoard(nextGenBoard);
-		this.gen++;
-	}
-	
-	public void setDead(int x, int y) {
-		/*
-		 * Sets cell at given location to DEAD
-		 *  
-		 **/
-		
-		this.setCell(x, y, DEAD_CELL);
-	}
-	
-	public void setAlive(int x, int y) {
-		/*
-		 * Sets cell at given location to ALIVE
-		 *  
-		 **/
-		
-		this.setCell(x, y, ALIVE_CELL);
-	}
-	
-	public int getGen() {
-		/* 
-		 * Returns current generation
-		 * 
-		 * */
-		return this.gen;
-	}
-}
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+
+public class GameOfLife implements BoardSource, Flow.Publisher<GenerationDiff> {
+	/* 
+	 * Engine for the Game of Life 
+	 * 
+	 * */
+
+	private BoardStorage store; //Board of record: the engine itself, or the storage CELL_ENGINE writes each generation into
+	private int storageType = BYTE_STORAGE;
+	private LifeEngine engine; //Alternative board storage and stepping, null when CELL_ENGINE steps the storage
+	private int engineType = CELL_ENGINE;
+	private ParallelStepper stepper; //Steps row bands on several threads, null when stepping sequentially
+	private boolean doubleBuffered; //setDoubleBuffered(true) was called, so storages that allocate as they step are not used
+	private long gen;
+	
+	//Living cells of CELL_ENGINE and their bounding box, kept up to date as cells change so neither has to be counted
+	private int population;
+	private int minX, minY, maxX, maxY; //Contains every living cell, maxX < minX when there are none
+	private boolean boundsLoose; //True when cells on the edge of the box were killed by hand, so it may be larger than needed
+	private int[] rowPopulation, rowMinX, rowMaxX, rowFlips; //Per-row results of the last nextGen, written by each band of rows
+	private long hash; //BoardHash of CELL_ENGINE's board, kept up to date like the population
+	private boolean hashStale; //True when whole rows were written since the hash was last computed, getHash computes it again
+	private long[] rowHash; //Change of the hash in each row during the last nextGen
+	
+	private boolean toroidal; //Edges wrap around, the cell past the right edge is the first cell of the row and so on
+	private int[] rowChangeMinX, rowChangeMaxX; //Span of CELL_ENGINE's cells that flipped in each row during the last nextGen
+	private long[][] nextRows; //Bit-packed next generation of the rows that flipped, written into the storage once every band is done
+	private ThreadLocal<RowWindow> rowWindows; //Rows each stepping thread unpacks the storage into
+	private long[] storeRow; //Row buffer the board is copied between storages with
+	
+	private ChangeSet changes; //Cells changed since they were last handed out, null until collectChanges or a subscriber needs them
+	private boolean nativeChanges; //The engine adds the cells that flip to changes as it steps, like CELL_ENGINE's step does
+	private boolean collecting; //collectChanges was called, so changes are only cleared by it
+	private long[][] shownRows; //Rows as of the last collectChanges, for engines that do not track changes themselves
+	
+	private DiffPublisher diffs; //Subscribers to the diff of each generation, null until the first one subscribes
+	private ChangeSet diffChanges; //Cells changed since the last diff, null unless the engine tracks its changes
+	private long[][] diffRows; //Board as of the last diff
+	private long diffGen; //Generation of the last diff
+	private long[] diffBirths = new long[64], diffDeaths = new long[64]; //Scratch for the coordinates of the next diff
+	
+	private CycleDetector cycles; //Detects still lifes and oscillators, null unless cycle detection is on
+	private boolean cyclesStale; //True when the board was edited since the last generation the detector recorded
+	
+	private GenerationHistory history; //Recent generations for previousGen and seek, null unless history is on
+	private boolean historyStale; //True when the board was edited since the history last recorded it
+	
+	private long evaluated; //Cells the last step evaluated
+	private long flips; //Cells of CELL_ENGINE that flipped in the last step
+	private long[][] metricRows; //Board before the step being measured, for engines that do not count their flips
+	
+	private LifeRule rule = LifeRule.CONWAY; //Rules of the game, B3/S23 unless set otherwise
+	
+	//Assign Cell state constants
+	private static final int DEAD_CELL = Cell.DEAD;
+	private static final int ALIVE_CELL = Cell.ALIVE;
+	
+	//Engine constants that select how the board is stored and stepped
+	public static final int CELL_ENGINE = 0; //Stepped cell by cell from the rows of a BoardStorage chosen by setStorage
+	public static final int BIT_ENGINE = 1; //Bit-packed rows, 64 cells per step
+	public static final int ACTIVE_ENGINE = 2; //Only evaluates cells whose neighborhood changed last generation
+	public static final int HASHLIFE_ENGINE = 3; //Memoized quadtree on an unbounded plane, can skip ahead exponentially
+	public static final int SPARSE_ENGINE = 4; //Hash map of bit tiles on an unbounded plane, memory follows the live area
+	public static final int TILED_ENGINE = 5; //64 x 64 bit tiles that sleep while they and their neighbors are unchanged
+	
+	//Names of the engines, indexed by their constants
+	public static final String[] ENGINE_NAMES = {"cell", "bit", "active", "hashlife", "sparse", "tiled"};
+	
+	//Storage constants that select where CELL_ENGINE keeps its board
+	public static final int PIECE_STORAGE = 0; //GameBoard of Cell objects, for code written against GamePiece
+	public static final int BYTE_STORAGE = 1; //One byte per cell
+	public static final int BIT_STORAGE = 2; //One bit per cell, rows of longs
+	public static final int SPARSE_STORAGE = 3; //64 x 64 bit tiles, only where there are living cells
+	
+	//Names of the storages, indexed by their constants
+	public static final String[] STORAGE_NAMES = {"pieces", "byte", "bit", "sparse"};
+	
+	//2-D array of 'shifts' that represent each of a cell's neighbors
+	private static final int[][] NEIGHBORS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {1, 1}, {1, -1}, {-1, 1}};
+			
+	public String toString() {
+		/* 
+		 * Returns string representation of a GameOfLife board
+		 * 
+		 **/
+		
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < this.getHeight(); i++) {
+			for (int j = 0; j < this.getWidth(); j++) {
+				result.append(store.isAlive(j, i) ? "A " : "D ");
+			}
+			result.append("\n");
+		}
+		return result.toString();
+	}
+	
+	public GameOfLife(int width, int height) {
+		/* 
+		 * Constructs a new GameOfLife with specified height and width
+		 * Fills with DEAD cells
+		 * 
+		 **/
+		
+		this(width, height, CELL_ENGINE);
+	}
+	
+	public GameOfLife(int width, int height, int engineType) {
+		/* 
+		 * Constructs a new GameOfLife with specified height and width, stored and stepped by the given engine
+		 * Fills with DEAD cells
+		 * If engineType is not one of the engine constants, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (engineType == BIT_ENGINE) {
+			engine = new BitBoard(width, height);
+		}
+		else if (engineType == ACTIVE_ENGINE) {
+			engine = new ActiveCellEngine(width, height);
+		}
+		else if (engineType == HASHLIFE_ENGINE) {
+			engine = new HashLifeEngine(width, height);
+		}
+		else if (engineType == SPARSE_ENGINE) {
+			engine = new SparseUniverse(width, height);
+		}
+		else if (engineType == TILED_ENGINE) {
+			engine = new TiledBoard(width, height);
+		}
+		else if (engineType == CELL_ENGINE) {
+			store = new ByteStorage(width, height);
+			initCellEngine(width, height);
+		}
+		else {
+			throw new IllegalArgumentException("Unknown engine: " + engineType);
+		}
+		if (engine != null) {
+			store = engine;
+		}
+		this.engineType = engineType;
+		clear(); //Sets all the cells to be dead
+		gen = 0;
+	}
+	
+	public GameOfLife(int width) {
+		/* 
+		 * Constructs a square GameOfLife with specified side length
+		 * Fills with DEAD cells
+		 * 
+		 **/
+		
+		this(width, width);
+	}
+	
+	public static int engineForName(String name) {
+		/* 
+		 * Returns the engine constant with the given name from ENGINE_NAMES
+		 * If there is no engine with that name, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		for (int i = 0; i < ENGINE_NAMES.length; i++) {
+			if (ENGINE_NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown engine: " + name);
+	}
+	
+	public static int storageForName(String name) {
+		/* 
+		 * Returns the storage constant with the given name in STORAGE_NAMES
+		 * If there is no such storage, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		for (int i = 0; i < STORAGE_NAMES.length; i++) {
+			if (STORAGE_NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown storage: " + name);
+	}
+	
+	public GameOfLife(Cell[][] initialSetup) {
+		/* 
+		 * Constructs a new GameOfLife based on given preset board of Cells
+		 * The board is kept as Cells, in PIECE_STORAGE, until setStorage picks another storage
+		 * 
+		 **/
+
+		//Copies contents of given board into instance board, not just the reference
+		GameBoard board = new GameBoard(initialSetup[0].length, initialSetup.length);
+		for (int i = 0; i < initialSetup[0].length; i++) {
+			for (int j = 0; j < initialSetup.length; j++) {
+				board.setPiece(i, j, initialSetup[j][i]);
+			}
+		}
+		this.store = board;
+		this.storageType = PIECE_STORAGE;
+		initCellEngine(initialSetup[0].length, initialSetup.length);
+		
+		//Counts the living cells once, from then on they are kept up to date
+		emptyBounds();
+		for (int i = 0; i < this.getHeight(); i++) {
+			for (int j = 0; j < this.getWidth(); j++) {
+				if (this.isAlive(j, i)) {
+					cellChanged(j, i, true);
+				}
+			}
+		}
+		gen = 0;
+	}
+	
+	public GameOfLife() {
+		/* 
+		 * Default constructor for GameOfLife
+		 * Creates a 50 x 50 board
+		 * 
+		 **/
+
+		this(50, 50);
+	}
+	public boolean isAlive(int x, int y) {
+		/* 
+		 * Returns whether cell at specified location is Alive
+		 * 
+		 **/
+
+		return store.isAlive(x, y);
+	}
+	public int countLivingNeighbors(int x, int y) {
+		/* 
+		 * Counts the number of living neighbors cell at specified location has
+		 * On a toroidal board neighbors past an edge are the cells on the opposite edge
+		 * Returns -1 if given location is invalid
+		 * 
+		 **/
+
+		if (isValidCoordinate(x, y)) {
+			int neighbors = 0;
+			
+			//Loops through each of the neighbor shifts and checks if neighboring cell is alive
+			for (int[] shift : NEIGHBORS) { 
+				int neighborX = x + shift[0], neighborY = y + shift[1];
+				if (toroidal) {
+					neighborX = (neighborX + this.getWidth()) % this.getWidth();
+					neighborY = (neighborY + this.getHeight()) % this.getHeight();
+				}
+				//Makes sure it doesn't access a 'neighbor' cell outside the board
+				if (this.isValidCoordinate(neighborX, neighborY) && this.isAlive(neighborX, neighborY)) {
+					neighbors++;
+				}
+			}
+			return neighbors; //returns neighbor counter
+		}
+		return -1; //Return value for invalid input
+	}
+	
+	public int countLivingCells() {
+		/* 
+		 * Returns the number of living cells on the board currently
+		 * Every engine keeps the count up to date as cells change, so no cells are scanned,
+		 * BIT_ENGINE from the first time it was asked for on, that call counts its rows once
+		 * 
+		 **/
+
+		if (engine != null) {
+			return engine.countLivingCells();
+		}
+		return this.population;
+	}
+	
+	public long getHash() {
+		/* 
+		 * Returns a 64 bit Zobrist hash of the living cells (see BoardHash), equal boards of the same engine have equal hashes
+		 * Boards with the same living cells have the same hash whatever their engine
+		 * CELL_ENGINE keeps it up to date as cells flip, and computes it from its rows again after whole rows were written,
+		 * BIT_ENGINE and ACTIVE_ENGINE keep it up to date once it was asked for,
+		 * SPARSE_ENGINE and HASHLIFE_ENGINE hash their living cells on the whole plane, other engines compute it from their rows
+		 * 
+		 **/
+		
+		if (engine != null) {
+			return engine.getHash();
+		}
+		if (hashStale) {
+			long rows = 0;
+			for (int y = 0; y < this.getHeight(); y++) {
+				store.getRow(y, storeRow);
+				for (int k = 0; k < storeRow.length; k++) {
+					if (storeRow[k] != 0) {
+						rows ^= BoardHash.bitsKey(64 * k, y, storeRow[k]);
+					}
+				}
+			}
+			this.hash = rows;
+			this.hashStale = false;
+		}
+		return this.hash;
+	}
+	
+	public void setCycleDetection(int history) {
+		/* 
+		 * Turns on detection of still lifes and oscillators with a period of up to history generations, 0 turns it off
+		 * nextGen always steps the board, once a cycle was found and a whole period stepped after it repeated it,
+		 * advance skips whole periods without stepping
+		 * Unbounded engines hash their whole plane, so a pattern that leaves the window is not taken for a still life
+		 * 
+		 **/
+		
+		this.cycles = history > 0 ? new CycleDetector(history) : null;
+		this.cyclesStale = true;
+	}
+	
+	public int getCycleHistory() {
+		/* 
+		 * Returns the longest period cycle detection looks for, 0 if it is off
+		 * 
+		 **/
+		
+		return cycles != null ? cycles.getHistory() : 0;
+	}
+	
+	public long getCyclePeriod() {
+		/* 
+		 * Returns the period of the cycle the board is in, 1 for a still life, 0 if none was found or detection is off
+		 * 
+		 **/
+		
+		return cycles != null && !cyclesStale ? cycles.getPeriod() : 0;
+	}
+	
+	public long getCycleStart() {
+		/* 
+		 * Returns the generation the current cycle started at, as far back as the history reaches, -1 if no cycle was found
+		 * 
+		 **/
+		
+		return cycles != null && !cyclesStale ? cycles.getStart() : -1;
+	}
+	
+	public int[] getLiveBounds() {
+		/* 
+		 * Returns {minX, minY, maxX, maxY} of the living cells on the board, or null if there are none
+		 * Kept up to date for CELL_ENGINE, and for BIT_ENGINE from the first time it was asked for on,
+		 * it is only rescanned (inside the old box) after cells on its edge were killed by hand
+		 * SPARSE_ENGINE finds it from its tiles, the other engines scan their rows, see LifeEngine.getLiveBounds
+		 * 
+		 **/
+		
+		if (engine == null) {
+			if (boundsLoose) {
+				shrinkBounds();
+			}
+			return maxX < minX ? null : new int[] {minX, minY, maxX, maxY};
+		}
+		
+		return engine.getLiveBounds();
+	}
+	
+	public void randomSetup() {
+		/* 
+		 * Randomizes the state of the board, 50% probability of either state on each cell
+		 * Resets generation counter (since it effectively starts a brand new game)
+		 * 
+		 **/
+
+		this.randomSetup(0.5);
+	}
+	
+	public void randomSetup(double density) {
+		/* 
+		 * Randomizes the state of the board, each cell is ALIVE with the given probability
+		 * Resets generation counter (since it effectively starts a brand new game)
+		 * On an unbounded engine the whole plane is cleared and only the window is seeded
+		 * 
+		 **/
+
+		this.gen = 0;
+		this.population = 0;
+		this.hash = 0;
+		this.hashStale = false;
+		this.cyclesStale = true;
+		this.historyStale = true;
+		emptyBounds();
+		if (changes != null) {
+			changes.addAll();
+		}
+		if (!this.isBounded()) {
+			engine.clear();
+		}
+		for (int i = 0; i < this.getHeight(); i++) {
+			for (int j = 0; j < this.getWidth(); j++) {
+				boolean alive = Math.random() < density;
+				store.setAlive(j, i, alive);
+				if (engine == null && alive) {
+					cellChanged(j, i, true);
+				}
+			}
+
+		}
+	}
+	
+	
+	public void clear() {
+		/* 
+		 * Clears board by setting all the cells to DEAD
+		 * Resets generation counter (since it effectively starts a brand new game)
+		 * 
+		 **/
+
+		this.cyclesStale = true;
+		this.historyStale = true;
+		if (changes != null) {
+			changes.addAll();
+		}
+		if (engine != null) {
+			engine.clear();
+			this.gen = 0;
+			return;
+		}
+		store.clear();
+		this.population = 0;
+		this.hash = 0;
+		this.hashStale = false;
+		emptyBounds();
+		this.gen = 0;
+	}
+	
+	private boolean isValidCoordinate(int x, int y) {
+		/* 
+		 * Private helper method that checks if given location is valid for the current GameOfLife board
+		 * Every location is valid on an unbounded engine
+		 * 
+		 **/
+
+		if (engine != null && !engine.isBounded()) {
+			return true;
+		}
+		return x >= 0 && x < this.getWidth() && y >= 0 && y < this.getHeight();
+	}
+	
+	public void changeState(int x, int y) {
+		/* 
+		 * Toggles state from DEAD to ALIVE or from ALIVE to DEAD
+		 * Does not do anything if location is invalid
+		 * 
+		 **/
+
+		if (isValidCoordinate(x, y)) {
+			if (this.isAlive(x, y)) {
+				this.setCell(x, y, DEAD_CELL);
+			}
+			else {
+				this.setCell(x, y, ALIVE_CELL);
+			}
+		}
+	}
+	
+	public Cell setCell(int x, int y, int value) {
+		/* 
+		 * Sets cell at given location to the given value
+		 * Returns cell that was replaced
+		 * If location is invalid null is returned
+		 * If value other than ALIVE or DEAD is given, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (value != ALIVE_CELL && value != DEAD_CELL) {
+			throw new IllegalArgumentException();
+		}
+		else if (!isValidCoordinate(x, y)) {
+			return null;
+
+		}
+		this.cyclesStale = true;
+		this.historyStale = true;
+		Cell temp = new Cell(store.isAlive(x, y) ? ALIVE_CELL : DEAD_CELL);
+		store.setAlive(x, y, value == ALIVE_CELL);
+		if (engine != null) {
+			if (changes != null) {
+				changes.add(x, y);
+			}
+		}
+		else if (temp.isAlive() != (value == ALIVE_CELL)) {
+			cellChanged(x, y, value == ALIVE_CELL);
+		}
+		return temp;
+
+	}
+	
+	public boolean willbeAlive(int x, int y) {
+		/* 
+		 * Returns true if a given cell will be alive in the next generation
+		 * 
+		 * With the default rule B3/S23:
+		 * Any live cell with fewer than two live neighbors dies, as if by underpopulation.
+		 * Any live cell with two or three live neighbors lives on to the next generation.
+		 * Any live cell with more than three live neighbors dies, as if by overpopulation.
+		 * Any dead cell with exactly three live neighbors becomes a live cell, as if by reproduction.
+		 * 
+		 * The rule is a lookup table indexed by state and neighbor count, so there are no branches whatever the rule
+		 * 
+		 **/
+		
+		if (isValidCoordinate(x, y)) {
+			return rule.next(this.isAlive(x, y), this.countLivingNeighbors(x, y));
+		}
+		return false;
+	}
+	
+	public void setRule(LifeRule rule) {
+		/* 
+		 * Sets the rule the board is stepped with from the next generation on, for example LifeRule.parse("B36/S23")
+		 * Throws IllegalArgumentException if the engine can not run the rule (B0 rules on an unbounded engine)
+		 * 
+		 **/
+		
+		if (rule == null) {
+			throw new IllegalArgumentException("Rule can not be null");
+		}
+		if (engine != null) {
+			engine.setRule(rule);
+		}
+		this.rule = rule;
+		this.cyclesStale = true;
+	}
+	
+	public LifeRule getRule() {
+		/* 
+		 * Returns the rule the board is stepped with
+		 * 
+		 **/
+		
+		return this.rule;
+	}
+	
+	public int getEngineType() {
+		/* 
+		 * Returns the engine constant the board was constructed with
+		 * 
+		 **/
+		
+		return this.engineType;
+	}
+	
+	public int getWidth() {
+		/* 
+		 * Returns width of GameOfLife's board
+		 * 
+		 **/
+		
+		return store.getWidth();
+	}
+	
+	public void getRow(int y, long[] words) {
+		/* 
+		 * Copies row y of the board into words, bit-packed: bit i of words[k] is the cell at x = 64 * k + i
+		 * words must hold at least (getWidth() + 63) / 64 longs
+		 * 
+		 **/
+		
+		store.getRow(y, words);
+	}
+	
+	public void setRow(int y, long[] words) {
+		/* 
+		 * Replaces row y of the board with the bit-packed cells in words, laid out like getRow
+		 * 
+		 **/
+		
+		this.cyclesStale = true;
+		this.historyStale = true;
+		if (engine != null) {
+			engine.setRow(y, words);
+			if (changes != null) {
+				changes.addSpan(y, 0, this.getWidth() - 1);
+			}
+			return;
+		}
+		//The row is written in one call, the counters follow the words that differ and the hash is computed again when asked for
+		this.hashStale = true;
+		store.getRow(y, storeRow);
+		store.setRow(y, words);
+		for (int k = 0; k < storeRow.length; k++) {
+			long mask = 64 * (k + 1) <= this.getWidth() ? -1L : (1L << (this.getWidth() & 63)) - 1;
+			long flipped = (words[k] ^ storeRow[k]) & mask;
+			if (flipped != 0) {
+				bitsChanged(64 * k, y, flipped, words[k]);
+			}
+		}
+	}
+	
+	void setGen(long gen) {
+		/* 
+		 * Sets the generation counter, used when a saved board is restored
+		 * 
+		 **/
+		
+		this.gen = gen;
+	}
+	
+	public int getHeight() {
+		/* 
+		 * Returns height of GameOfLife's board
+		 * 
+		 **/
+		
+		return store.getHeight();
+	}
+	
+	public void nextGen() {
+		/* 
+		 * Updates the board to the next generation of the game
+		 * With history on, edits made since the last generation are recorded first, then the new generation
+		 * The step is measured if Metrics are enabled or a flight recording enables LifeEvents.Generation
+		 * 
+		 **/
+		
+		LifeEvents.Generation event = new LifeEvents.Generation();
+		if (Metrics.isEnabled() || event.isEnabled()) {
+			measureStep(event, 1);
+		}
+		else {
+			stepAndRecord();
+		}
+	}
+	
+	private void stepAndRecord() {
+		/* 
+		 * Steps the board one generation and hands it to the history and the diff subscribers
+		 * 
+		 **/
+		
+		if (history != null && historyStale) {
+			recordHistory();
+		}
+		nextGenDetectingCycles();
+		if (history != null) {
+			recordHistory();
+		}
+		publishDiff();
+	}
+	
+	private void nextGenDetectingCycles() {
+		/* 
+		 * Steps the board one generation, feeding the cycle detector when it is on
+		 * 
+		 **/
+		
+		if (cycles == null) {
+			step();
+			return;
+		}
+		
+		//Starts the history over from the current board if it was edited
+		if (cyclesStale) {
+			cycles.reset();
+			cycles.record(this.gen, this.getHash());
+			cyclesStale = false;
+		}
+		step();
+		cycles.record(this.gen, this.getHash());
+	}
+	
+	private void step() {
+		/* 
+		 * Steps the board one generation with the current engine
+		 * 
+		 **/
+		
+		if (engine != null) {
+			engine.nextGen();
+			evaluated = engine.getCellsEvaluated();
+			this.gen++;
+			return;
+		}
+		if (this.population == 0 && !rule.birthOnZero() || this.getWidth() == 0) { //An empty board stays empty
+			evaluated = 0;
+			this.gen++;
+			return;
+		}
+		
+		//Only cells in the bounding box of the living cells, or next to it, can be alive in the next generation
+		//Under a B0 rule any cell can be born, and on a toroidal board a box touching an edge reaches the opposite one,
+		//so those axes are stepped in full
+		int width = this.getWidth(), height = this.getHeight();
+		boolean allX = rule.birthOnZero() || toroidal && (minX == 0 || maxX == width - 1);
+		boolean allY = rule.birthOnZero() || toroidal && (minY == 0 || maxY == height - 1);
+		int fromX = allX ? 0 : Math.max(minX - 1, 0);
+		int toX = allX ? width : Math.min(maxX + 2, width);
+		int fromY = allY ? 0 : Math.max(minY - 1, 0);
+		int toY = allY ? height : Math.min(maxY + 2, height);
+		evaluated = (long) (toX - fromX) * (toY - fromY);
+		
+		//Reads the storage into nextRows, splitting the rows into bands over several threads if a stepper is set
+		if (stepper != null) {
+			stepper.run(toY - fromY, (fromRow, toRow) -> fillNextGen(fromX, toX, fromY + fromRow, fromY + toRow));
+		}
+		else {
+			fillNextGen(fromX, toX, fromY, toY);
+		}
+		updateCounts(fromY, toY);
+		
+		//Every band is done reading, so the rows with cells that flipped are written into the storage, in bulk
+		for (int i = fromY; i < toY; i++) {
+			if (rowChangeMaxX[i] >= 0) {
+				store.setRow(i, nextRows[i]);
+				if (changes != null) {
+					changes.addSpan(i, rowChangeMinX[i], rowChangeMaxX[i]);
+				}
+			}
+		}
+		this.gen++;
+	}
+	
+	private void fillNextGen(int fromX, int toX, int fromRow, int toRow) {
+		/* 
+		 * Steps the cells in columns fromX to toX of rows fromRow to toRow, writing each row with cells that flip into nextRows
+		 * 
+		 * The storage is only read here, a bit-packed row at a time, so bands can run on several threads whatever the storage
+		 * Each row is unpacked once into a rolling window of three byte rows with a halo cell at either end,
+		 * and the rule is a table lookup, so there are no bounds checks or branches on the neighbor count
+		 * Counts the living cells and finds the span of the cells that flip in each row as it goes
+		 * 
+		 **/
+		
+		RowWindow window = rowWindows.get();
+		long[][] packed = window.packed;
+		byte[][] cells = window.cells;
+		readRow(fromRow - 1, packed[0], cells[0], fromX, toX);
+		readRow(fromRow, packed[1], cells[1], fromX, toX);
+		for (int i = fromRow; i < toRow; i++) {
+			readRow(i + 1, packed[2], cells[2], fromX, toX);
+			byte[] above = cells[0], row = cells[1], below = cells[2];
+			long[] next = null;
+			int count = 0, left = Integer.MAX_VALUE, right = -1, flipped = 0;
+			int changeLeft = Integer.MAX_VALUE, changeRight = -1;
+			long change = 0;
+			for (int j = fromX; j < toX; j++) {
+				int index = j + 1;
+				int neighbors = above[index - 1] + above[index] + above[index + 1]
+						+ row[index - 1] + row[index + 1]
+						+ below[index - 1] + below[index] + below[index + 1];
+				boolean wasAlive = row[index] != 0;
+				boolean alive = rule.next(wasAlive, neighbors);
+				if (alive) {
+					count++;
+					left = Math.min(left, j);
+					right = j;
+				}
+				if (alive != wasAlive) {
+					if (next == null) { //First flip of the row, the rest of it is copied from the current generation
+						if (nextRows[i] == null) {
+							nextRows[i] = new long[storeRow.length];
+						}
+						next = nextRows[i];
+						System.arraycopy(packed[1], 0, next, 0, next.length);
+					}
+					next[j >>> 6] ^= 1L << j;
+					change ^= BoardHash.cellKey(j, i);
+					changeLeft = Math.min(changeLeft, j);
+					changeRight = j;
+					flipped++;
+				}
+			}
+			rowHash[i] = change;
+			rowChangeMinX[i] = changeLeft;
+			rowChangeMaxX[i] = changeRight;
+			rowPopulation[i] = count;
+			rowFlips[i] = flipped;
+			rowMinX[i] = left;
+			rowMaxX[i] = right;
+			window.shift();
+		}
+	}
+	
+	private void readRow(int y, long[] words, byte[] row, int fromX, int toX) {
+		/* 
+		 * Reads row y of the storage into words, and unpacks columns fromX - 1 to toX of it into row, at index x + 1
+		 * Rows and columns past an edge are the ones on the opposite edge on a toroidal board, DEAD otherwise
+		 * 
+		 **/
+		
+		int width = this.getWidth(), height = this.getHeight();
+		if (y < 0 || y >= height) {
+			if (!toroidal) {
+				Arrays.fill(words, 0);
+				Arrays.fill(row, fromX, toX + 2, (byte) 0);
+				return;
+			}
+			y = y < 0 ? height - 1 : 0;
+		}
+		store.getRow(y, words);
+		int to = Math.min(toX, width - 1);
+		for (int x = Math.max(fromX - 1, 0); x <= to; x++) {
+			row[x + 1] = (byte) ((words[x >>> 6] >>> x) & 1);
+		}
+		if (fromX == 0) {
+			row[0] = (byte) (toroidal ? (words[(width - 1) >>> 6] >>> (width - 1)) & 1 : 0);
+		}
+		if (toX == width) {
+			row[width + 1] = (byte) (toroidal ? words[0] & 1 : 0);
+		}
+	}
+	
+	private void updateCounts(int fromRow, int toRow) {
+		/* 
+		 * Sets the population, bounding box, hash and flips from the per-row counts of the rows nextGen just stepped
+		 * Every other row is DEAD
+		 * 
+		 **/
+		
+		this.population = 0;
+		this.flips = 0;
+		emptyBounds();
+		for (int i = fromRow; i < toRow; i++) {
+			this.hash ^= rowHash[i];
+			this.flips += rowFlips[i];
+			if (rowPopulation[i] > 0) {
+				this.population += rowPopulation[i];
+				minX = Math.min(minX, rowMinX[i]);
+				maxX = Math.max(maxX, rowMaxX[i]);
+				minY = Math.min(minY, i);
+				maxY = i;
+			}
+		}
+	}
+	
+	private void cellChanged(int x, int y, boolean alive) {
+		/* 
+		 * Updates the population, bounding box and hash after the cell at (x, y) of CELL_ENGINE was set to the given state
+		 * 
+		 **/
+		
+		if (changes != null) {
+			changes.add(x, y);
+		}
+		this.hash ^= BoardHash.cellKey(x, y);
+		if (alive) {
+			this.population++;
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			return;
+		}
+		this.population--;
+		if (this.population == 0) {
+			emptyBounds();
+		}
+		else if (x == minX || x == maxX || y == minY || y == maxY) {
+			boundsLoose = true;
+		}
+	}
+	
+	private void bitsChanged(int x, int y, long flipped, long alive) {
+		/* 
+		 * Updates the population, bounding box and hash after the cells of CELL_ENGINE at x + i of row y flipped,
+		 * for every set bit i of flipped, each to its bit in alive
+		 * 
+		 **/
+		
+		if (changes != null) {
+			changes.addSpan(y, x + Long.numberOfTrailingZeros(flipped), x + 63 - Long.numberOfLeadingZeros(flipped));
+		}
+		if (!hashStale) {
+			this.hash ^= BoardHash.bitsKey(x, y, flipped);
+		}
+		long born = flipped & alive, died = flipped & ~alive;
+		this.population += Long.bitCount(born) - Long.bitCount(died);
+		if (born != 0) {
+			minX = Math.min(minX, x + Long.numberOfTrailingZeros(born));
+			maxX = Math.max(maxX, x + 63 - Long.numberOfLeadingZeros(born));
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		if (this.population == 0) {
+			emptyBounds();
+		}
+		else if (died != 0 && (y == minY || y == maxY || (minX - x >= 0 && minX - x < 64 && (died >>> (minX - x) & 1) != 0)
+				|| (maxX - x >= 0 && maxX - x < 64 && (died >>> (maxX - x) & 1) != 0))) {
+			boundsLoose = true;
+		}
+	}
+	
+	private void shrinkBounds() {
+		/* 
+		 * Shrinks the bounding box back to the living cells, scanning only the cells inside the old box
+		 * 
+		 **/
+		
+		int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = -1, bottom = -1;
+		for (int i = minY; i <= maxY; i++) {
+			for (int j = minX; j <= maxX; j++) {
+				if (this.isAlive(j, i)) {
+					left = Math.min(left, j);
+					right = Math.max(right, j);
+					top = Math.min(top, i);
+					bottom = i;
+				}
+			}
+		}
+		minX = left;
+		minY = top;
+		maxX = right;
+		maxY = bottom;
+		boundsLoose = false;
+	}
+	
+	private void emptyBounds() {
+		/* 
+		 * Resets the bounding box to hold no cells
+		 * 
+		 **/
+		
+		minX = Integer.MAX_VALUE;
+		minY = Integer.MAX_VALUE;
+		maxX = -1;
+		maxY = -1;
+		boundsLoose = false;
+	}
+	
+	private void initCellEngine(int width, int height) {
+		/* 
+		 * Allocates the per-row counts nextGen uses for CELL_ENGINE
+		 * The rows of the next generation are allocated the first time one of their cells flips
+		 * 
+		 **/
+		
+		nextRows = new long[height][];
+		rowWindows = ThreadLocal.withInitial(() -> new RowWindow(width));
+		rowPopulation = new int[height];
+		rowMinX = new int[height];
+		rowMaxX = new int[height];
+		rowFlips = new int[height];
+		rowHash = new long[height];
+		rowChangeMinX = new int[height];
+		rowChangeMaxX = new int[height];
+		storeRow = new long[(width + 63) >>> 6];
+	}
+	
+	public void collectChanges(ChangeSet into) {
+		/* 
+		 * Adds the cells that changed since the last call, by stepping or by editing, to into
+		 * The first call adds the whole board, changes are only tracked from then on (or from the first subscriber on)
+		 * Every engine but HASHLIFE_ENGINE tracks the cells that flip as it steps, so this costs as much as the activity;
+		 * HASHLIFE_ENGINE is compared row by row against the rows of the last call, 64 cells at a time
+		 * into must be for a board of the same size
+		 * 
+		 **/
+		
+		if (!collecting) {
+			trackChanges();
+			if (!nativeChanges) {
+				shownRows = new long[this.getHeight()][(this.getWidth() + 63) >>> 6];
+				for (int i = 0; i < this.getHeight(); i++) {
+					this.getRow(i, shownRows[i]);
+				}
+			}
+			if (diffChanges != null) {
+				diffChanges.addAll(changes);
+			}
+			changes.clear();
+			collecting = true;
+			into.addAll();
+			return;
+		}
+		if (shownRows != null) {
+			long[] row = new long[(this.getWidth() + 63) >>> 6];
+			for (int i = 0; i < this.getHeight(); i++) {
+				this.getRow(i, row);
+				for (int k = 0; k < row.length; k++) {
+					long flipped = row[k] ^ shownRows[i][k];
+					if (flipped != 0) {
+						into.addSpan(i, 64 * k + Long.numberOfTrailingZeros(flipped), 64 * k + 63 - Long.numberOfLeadingZeros(flipped));
+					}
+				}
+				long[] temp = shownRows[i];
+				shownRows[i] = row;
+				row = temp;
+			}
+			changes.clear();
+			return;
+		}
+		if (diffChanges != null) {
+			diffChanges.addAll(changes);
+		}
+		into.addAll(changes);
+		changes.clear();
+	}
+	
+	private void trackChanges() {
+		/* 
+		 * Starts tracking the cells that change, for collectChanges and the diff publisher
+		 * 
+		 **/
+		
+		if (changes == null) {
+			changes = new ChangeSet(this.getWidth(), this.getHeight());
+			nativeChanges = engine == null || engine.setChangeSet(changes);
+		}
+	}
+	
+	public void subscribe(Flow.Subscriber<? super GenerationDiff> subscriber) {
+		/* 
+		 * Subscribes to the diff of every generation from now on: the cells that were born and the cells that died, see GenerationDiff
+		 * A diff is published after each nextGen, seek and jump of advance, edits in between are part of the next one
+		 * Subscribers control how many diffs they get with request, a subscriber that falls behind gets the diffs it missed merged
+		 * 
+		 * Must be called on the thread that steps the game, which is also the thread diffs are delivered on (see DiffPublisher)
+		 * Every engine but HASHLIFE_ENGINE only reads the cells that changed, HASHLIFE_ENGINE is compared row by row
+		 * 
+		 **/
+		
+		if (diffs == null) {
+			diffs = new DiffPublisher();
+		}
+		
+		//Diffs start over from the current board whenever nobody was listening
+		if (!diffs.hasSubscribers()) {
+			trackChanges();
+			if (nativeChanges) {
+				if (diffChanges == null) {
+					diffChanges = new ChangeSet(this.getWidth(), this.getHeight());
+				}
+				diffChanges.clear();
+				if (!collecting) {
+					changes.clear();
+				}
+			}
+			if (diffRows == null) {
+				diffRows = new long[this.getHeight()][(this.getWidth() + 63) >>> 6];
+			}
+			for (int i = 0; i < this.getHeight(); i++) {
+				this.getRow(i, diffRows[i]);
+			}
+			diffGen = this.gen;
+		}
+		diffs.subscribe(subscriber);
+	}
+	
+	private void publishDiff() {
+		/* 
+		 * Publishes the cells that changed since the last diff to the subscribers, if there are any
+		 * With an engine that tracks its changes only the changed spans of rows are read, otherwise every row is compared
+		 * 
+		 **/
+		
+		if (diffs == null || !diffs.hasSubscribers()) {
+			return;
+		}
+		if (diffChanges != null) {
+			diffChanges.addAll(changes);
+			if (!collecting) {
+				changes.clear();
+			}
+		}
+		
+		int births = 0, deaths = 0;
+		int words = (this.getWidth() + 63) >>> 6;
+		long[] row = new long[words];
+		for (int y = 0; y < this.getHeight(); y++) {
+			int fromK = 0, toK = words - 1;
+			if (diffChanges != null) {
+				if (!diffChanges.isChanged(y)) {
+					continue;
+				}
+				fromK = diffChanges.getMinX(y) >>> 6;
+				toK = diffChanges.getMaxX(y) >>> 6;
+			}
+			this.getRow(y, row);
+			for (int k = fromK; k <= toK; k++) {
+				long flipped = row[k] ^ diffRows[y][k];
+				if (flipped == 0) {
+					continue;
+				}
+				if (births + 64 > diffBirths.length) {
+					diffBirths = Arrays.copyOf(diffBirths, 2 * diffBirths.length + 64);
+				}
+				if (deaths + 64 > diffDeaths.length) {
+					diffDeaths = Arrays.copyOf(diffDeaths, 2 * diffDeaths.length + 64);
+				}
+				for (long born = flipped & row[k]; born != 0; born &= born - 1) {
+					diffBirths[births++] = GenerationDiff.pack(64 * k + Long.numberOfTrailingZeros(born), y);
+				}
+				for (long died = flipped & ~row[k]; died != 0; died &= died - 1) {
+					diffDeaths[deaths++] = GenerationDiff.pack(64 * k + Long.numberOfTrailingZeros(died), y);
+				}
+				diffRows[y][k] = row[k];
+			}
+		}
+		if (diffChanges != null) {
+			diffChanges.clear();
+		}
+		
+		GenerationDiff diff = new GenerationDiff(diffGen, this.gen, Arrays.copyOf(diffBirths, births), Arrays.copyOf(diffDeaths, deaths));
+		diffGen = this.gen;
+		diffs.publish(diff);
+	}
+	
+	public void setToroidal(boolean toroidal) {
+		/* 
+		 * Switches between a bounded board, where cells past the edges are DEAD, and a toroidal one, where edges wrap around
+		 * Throws IllegalArgumentException if the engine only supports bounded boards (CELL_ENGINE and BIT_ENGINE support both)
+		 * 
+		 **/
+		
+		if (engine != null) {
+			engine.setToroidal(toroidal);
+		}
+		this.toroidal = toroidal;
+		this.cyclesStale = true;
+	}
+	
+	public boolean isToroidal() {
+		/* 
+		 * Returns true if the edges of the board wrap around
+		 * 
+		 **/
+		
+		return this.toroidal;
+	}
+	
+	public void setParallelism(int parallelism) {
+		/* 
+		 * Sets how many threads nextGen splits the board over, in bands of rows
+		 * 1 or less steps sequentially on the calling thread
+		 * Results are identical to stepping sequentially
+		 * 
+		 **/
+		
+		if (stepper != null) {
+			stepper.shutdown();
+		}
+		stepper = parallelism > 1 ? new ParallelStepper(parallelism) : null;
+		if (engine != null) {
+			engine.setStepper(stepper);
+		}
+	}
+	
+	public int getParallelism() {
+		/* 
+		 * Returns how many threads nextGen runs on
+		 * 
+		 **/
+		
+		return stepper != null ? stepper.getParallelism() : 1;
+	}
+	
+	public void setDoubleBuffered(boolean doubleBuffered) {
+		/* 
+		 * Makes nextGen step without allocating, writing each generation into buffers kept from one generation to the next
+		 * CELL_ENGINE moves its board to BYTE_STORAGE if it is in PIECE_STORAGE, where the Cells that flip are replaced by new ones,
+		 * or in SPARSE_STORAGE, where tiles come and go, and setStorage refuses those two storages until this is turned off again
+		 * If the engine allocates as it steps by design (HASHLIFE_ENGINE and SPARSE_ENGINE), IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (doubleBuffered && (engineType == HASHLIFE_ENGINE || engineType == SPARSE_ENGINE)) {
+			throw new IllegalArgumentException("The " + ENGINE_NAMES[engineType] + " engine can not step without allocating");
+		}
+		this.doubleBuffered = doubleBuffered;
+		if (doubleBuffered && engine == null && !buffersInPlace(storageType)) {
+			setStorage(BYTE_STORAGE);
+		}
+	}
+	
+	public boolean isDoubleBuffered() {
+		/* 
+		 * Returns true if nextGen steps without allocating, whether or not setDoubleBuffered asked for it
+		 * 
+		 **/
+		
+		if (engine != null) {
+			return engineType != HASHLIFE_ENGINE && engineType != SPARSE_ENGINE;
+		}
+		return buffersInPlace(storageType);
+	}
+	
+	private static boolean buffersInPlace(int storageType) {
+		/* 
+		 * Returns true if CELL_ENGINE steps without allocating when its board is in the given storage
+		 * 
+		 **/
+		
+		return storageType == BYTE_STORAGE || storageType == BIT_STORAGE;
+	}
+	
+	public void setStorage(int storageType) {
+		/* 
+		 * Moves CELL_ENGINE's board into the given storage, one of the storage constants
+		 * nextGen reads and writes the storage a bit-packed row at a time, and keeps no other copy of the board than
+		 * the next generation of the rows that flipped, an eighth of a byte per cell at most
+		 * BYTE_STORAGE is the default at a byte per cell, BIT_STORAGE takes an eighth of a byte per cell,
+		 * SPARSE_STORAGE only keeps the tiles with living cells and PIECE_STORAGE keeps a GameBoard of Cells like older versions did
+		 * Has no effect on engines other than CELL_ENGINE, which store their own cells
+		 * If storageType is not one of the storage constants, or the board is double buffered and the storage
+		 * allocates as it steps (PIECE_STORAGE and SPARSE_STORAGE), IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (storageType < 0 || storageType >= STORAGE_NAMES.length) {
+			throw new IllegalArgumentException("Unknown storage: " + storageType);
+		}
+		if (doubleBuffered && engine == null && !buffersInPlace(storageType)) {
+			throw new IllegalArgumentException("The " + STORAGE_NAMES[storageType] + " storage can not be double buffered");
+		}
+		if (engine != null || storageType == this.storageType) {
+			return;
+		}
+		int width = this.getWidth(), height = this.getHeight();
+		BoardStorage next;
+		if (storageType == PIECE_STORAGE) {
+			next = new GameBoard(width, height);
+		}
+		else if (storageType == BIT_STORAGE) {
+			next = new BitBoard(width, height);
+		}
+		else if (storageType == SPARSE_STORAGE) {
+			next = new SparseUniverse(width, height);
+		}
+		else {
+			next = new ByteStorage(width, height);
+		}
+		for (int y = 0; y < height; y++) {
+			this.getRow(y, storeRow);
+			next.setRow(y, storeRow);
+		}
+		this.store = next;
+		this.storageType = storageType;
+	}
+	
+	public int getStorageType() {
+		/* 
+		 * Returns the storage constant CELL_ENGINE keeps its board in
+		 * 
+		 **/
+		
+		return this.storageType;
+	}
+	
+	public void setAliveRun(int x, int y, int length) {
+		/* 
+		 * Sets length cells of row y to ALIVE, starting at (x, y) and going east
+		 * Part of the run that is off a bounded board is ignored
+		 * Used to fill in patterns in bulk, bit-packed engines set whole words at once
+		 * 
+		 **/
+		
+		if (engine == null || engine.isBounded()) {
+			if (y < 0 || y >= this.getHeight()) {
+				return;
+			}
+			int start = Math.max(x, 0);
+			length = Math.min(x + length, this.getWidth()) - start;
+			x = start;
+		}
+		if (length <= 0) {
+			return;
+		}
+		this.cyclesStale = true;
+		this.historyStale = true;
+		if (engine != null) {
+			engine.setAliveRun(x, y, length);
+			if (changes != null) {
+				changes.addSpan(y, x, x + length - 1);
+			}
+		}
+		else {
+			//Counts the cells the run brings to life one word at a time, then sets the run in one call
+			for (int k = x >>> 6; k <= (x + length - 1) >>> 6; k++) {
+				long born = 0;
+				for (int i = Math.max(x, 64 * k); i < Math.min(x + length, 64 * k + 64); i++) {
+					if (!store.isAlive(i, y)) {
+						born |= 1L << i;
+					}
+				}
+				if (born != 0) {
+					bitsChanged(64 * k, y, born, -1L);
+				}
+			}
+			store.setAliveRun(x, y, length);
+		}
+	}
+	
+	public void advance(long generations) {
+		/* 
+		 * Advances the board by the given number of generations
+		 * HASHLIFE_ENGINE jumps ahead in O(log generations) steps, other engines step one generation at a time
+		 * With cycle detection on, generations are stepped one at a time until a cycle is confirmed, then whole periods are skipped
+		 * Engines advance in one call that publishes one diff, CELL_ENGINE steps one generation at a time;
+		 * measuring does not change this, a call of an engine is measured as a whole
+		 * If generations is negative, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (generations < 0) {
+			throw new IllegalArgumentException("Can not advance by a negative number of generations");
+		}
+		if (cycles != null) {
+			long left = generations;
+			while (left > 0) {
+				long period = this.getCyclePeriod();
+				if (period > 0 && cycles.isConfirmed() && left >= period) {
+					this.gen += left - left % period;
+					left %= period;
+				}
+				else {
+					this.nextGen();
+					left--;
+				}
+			}
+		}
+		else if (engine != null) {
+			LifeEvents.Generation event = new LifeEvents.Generation();
+			if (Metrics.isEnabled() || event.isEnabled()) {
+				measureStep(event, generations);
+			}
+			else {
+				jump(generations);
+			}
+		}
+		else {
+			for (long i = 0; i < generations; i++) {
+				this.nextGen();
+			}
+		}
+		
+		//A jump of more than one generation starts the history over
+		if (history != null) {
+			recordHistory();
+		}
+	}
+	
+	private void jump(long generations) {
+		/* 
+		 * Advances the engine by generations in one call and publishes the diff of the whole jump
+		 * 
+		 **/
+		
+		engine.advance(generations);
+		evaluated = engine.getCellsEvaluated();
+		this.gen += generations;
+		publishDiff();
+	}
+	
+	private void measureStep(LifeEvents.Generation event, long generations) {
+		/* 
+		 * Steps the board like nextGen, or jumps generations ahead with the engine if there are more than one,
+		 * and records the time, allocation, cells evaluated, births and deaths in the Metrics and in event
+		 * CELL_ENGINE counts the cells that flip as it steps, the other engines' boards are compared before and after the step,
+		 * which costs about one more pass over the rows while measuring
+		 * 
+		 **/
+		
+		int words = (this.getWidth() + 63) >>> 6;
+		if (engine != null) {
+			if (metricRows == null) {
+				metricRows = new long[this.getHeight()][words];
+			}
+			for (int y = 0; y < this.getHeight(); y++) {
+				this.getRow(y, metricRows[y]);
+			}
+		}
+		long populationBefore = this.population;
+		this.flips = 0;
+		this.evaluated = 0;
+		
+		long allocatedBefore = Metrics.allocatedBytes();
+		event.begin();
+		long start = System.nanoTime();
+		if (generations == 1) {
+			stepAndRecord(); //Records and publishes one generation, like a jump of one
+		}
+		else {
+			jump(generations);
+		}
+		long elapsed = System.nanoTime() - start;
+		event.end();
+		long allocated = Metrics.allocatedBytes() - allocatedBefore;
+		
+		//A cell that flipped was either born or died, and the births outnumber the deaths by the change in population
+		long births = (this.flips + this.population - populationBefore) / 2, deaths = this.flips - births;
+		if (engine != null) {
+			births = 0;
+			deaths = 0;
+			long[] row = new long[words];
+			for (int y = 0; y < this.getHeight(); y++) {
+				this.getRow(y, row);
+				for (int k = 0; k < words; k++) {
+					long flipped = row[k] ^ metricRows[y][k];
+					births += Long.bitCount(flipped & row[k]);
+					deaths += Long.bitCount(flipped & ~row[k]);
+				}
+			}
+		}
+		
+		if (Metrics.isEnabled()) {
+			Metrics.GENERATIONS.add(generations);
+			Metrics.CELLS_EVALUATED.add(evaluated);
+			Metrics.BIRTHS.add(births);
+			Metrics.DEATHS.add(deaths);
+			Metrics.STEP_TIME.record(elapsed);
+			Metrics.STEP_CELLS.record(evaluated);
+			Metrics.STEP_BIRTHS.record(births);
+			Metrics.STEP_DEATHS.record(deaths);
+			if (allocatedBefore >= 0) {
+				Metrics.STEP_ALLOCATION.record(allocated);
+			}
+		}
+		if (event.shouldCommit()) {
+			event.gen = this.gen;
+			event.generations = generations;
+			event.engine = ENGINE_NAMES[engineType];
+			event.cellsEvaluated = evaluated;
+			event.births = births;
+			event.deaths = deaths;
+			event.allocated = allocatedBefore >= 0 ? allocated : 0;
+			event.commit();
+		}
+	}
+	
+	public boolean isBounded() {
+		/* 
+		 * Returns true if the board ends at its edges, false if it is an unbounded plane that is only shown through its window
+		 * 
+		 **/
+		
+		return engine == null || engine.isBounded();
+	}
+	
+	public void countBlocks(int x, int y, int level, int columns, int rows, int[] counts) {
+		/* 
+		 * Counts the living cells of blocks of 2^level x 2^level cells into counts, see BoardSource.countBlocks
+		 * Unbounded engines count anywhere on their plane, other boards count the cells the blocks cover on them
+		 * 
+		 **/
+		
+		if (engine != null && !engine.isBounded()) {
+			engine.countBlocks(x, y, level, columns, rows, counts);
+			return;
+		}
+		BoardSource.super.countBlocks(x, y, level, columns, rows, counts);
+	}
+	
+	public void setHistory(long budgetBytes) {
+		/* 
+		 * Turns on recording of past generations for previousGen and seek, keeping up to budgetBytes of them, 0 turns it off
+		 * Generations are recorded as compressed differences, so a budget holds more generations the less the board changes
+		 * Recording starts with the current board
+		 * If the budget is negative, or history is turned on for an unbounded engine, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (budgetBytes < 0) {
+			throw new IllegalArgumentException("History budget can not be negative: " + budgetBytes);
+		}
+		if (budgetBytes == 0) {
+			this.history = null;
+			return;
+		}
+		if (!this.isBounded()) {
+			throw new IllegalArgumentException("History can only record a bounded board");
+		}
+		this.history = new GenerationHistory(this.getWidth(), this.getHeight(), budgetBytes);
+		this.historyStale = true;
+		recordHistory();
+	}
+	
+	public long getHistoryStart() {
+		/* 
+		 * Returns the oldest generation that can be sought, -1 if history is off
+		 * 
+		 **/
+		
+		return history != null ? history.getFirstGen() : -1;
+	}
+	
+	public long getHistoryEnd() {
+		/* 
+		 * Returns the newest generation that can be sought, -1 if history is off
+		 * Edits made since the last generation are recorded first, so they are part of the current generation
+		 * 
+		 **/
+		
+		if (history == null) {
+			return -1;
+		}
+		if (historyStale) {
+			recordHistory();
+		}
+		return history.getLastGen();
+	}
+	
+	public boolean previousGen() {
+		/* 
+		 * Steps the board back to the previous generation
+		 * Returns false, leaving the board as it is, if history is off or the previous generation is no longer recorded
+		 * 
+		 **/
+		
+		if (this.getHistoryStart() < 0 || this.gen <= this.getHistoryStart()) {
+			return false;
+		}
+		this.seek(this.gen - 1);
+		return true;
+	}
+	
+	public void seek(long gen) {
+		/* 
+		 * Restores the board to a recorded generation, earlier or later than the current one
+		 * Later generations stay recorded until the board is stepped or edited from an earlier one
+		 * If history is off or gen is not recorded, IllegalArgumentException is thrown
+		 * 
+		 **/
+		
+		if (history == null || gen < this.getHistoryStart() || gen > this.getHistoryEnd()) {
+			throw new IllegalArgumentException("Generation " + gen + " is not recorded, history holds " + this.getHistoryStart() + " to " + this.getHistoryEnd());
+		}
+		history.seek(this, gen);
+		this.historyStale = false;
+		publishDiff();
+	}
+	
+	private void recordHistory() {
+		/* 
+		 * Records the current board in the history
+		 * 
+		 **/
+		
+		history.record(this, historyStale);
+		this.historyStale = false;
+	}
+	
+	public void setDead(int x, int y) {
+		/*
+		 * Sets cell at given location to DEAD
+		 *  
+		 **/
+		
+		this.setCell(x, y, DEAD_CELL);
+	}
+	
+	public void setAlive(int x, int y) {
+		/*
+		 * Sets cell at given location to ALIVE
+		 *  
+		 **/
+		
+		this.setCell(x, y, ALIVE_CELL);
+	}
+	
+	public long getGen() {
+		/* 
+		 * Returns current generation
+		 * 
+		 * */
+		return this.gen;
+	}
+	
+	private static final class RowWindow {
+		/* 
+		 * Three consecutive rows of the storage as nextGen steps down a band, bit-packed and unpacked to a byte per cell
+		 * One per stepping thread, so stepping allocates nothing once every thread has one
+		 * 
+		 **/
+		
+		final long[][] packed; //Rows above, at and below the one being stepped
+		final byte[][] cells; //The same rows one byte per cell, index x + 1, with a halo cell at either end
+		
+		RowWindow(int width) {
+			packed = new long[3][(width + 63) >>> 6];
+			cells = new byte[3][width + 2];
+		}
+		
+		void shift() {
+			/* 
+			 * Moves the window down a row, the buffers of the top row are reused for the next row below
+			 * 
+			 **/
+			
+			long[] words = packed[0];
+			packed[0] = packed[1];
+			packed[1] = packed[2];
+			packed[2] = words;
+			byte[] row = cells[0];
+			cells[0] = cells[1];
+			cells[1] = cells[2];
+			cells[2] = row;
+		}
+	}
+}
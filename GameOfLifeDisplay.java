@@ -1,689 +1,971 @@
-import java.awt.BorderLayout;
-import java.awt.CardLayout;
-import java.awt.Color;
-import java.awt.Dimension;
-import java.awt.EventQueue;
-import java.awt.FlowLayout;
-import java.awt.GridLayout;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
-
-import javax.swing.JFrame;
-import javax.swing.JLabel;
-import javax.swing.JMenuItem;
-import javax.swing.JPanel;
-import javax.swing.JPopupMenu;
-import javax.swing.JSlider;
-import javax.swing.JTabbedPane;
-import javax.swing.JTextField;
-import javax.swing.border.EmptyBorder;
-import javax.swing.event.ChangeEvent;
-import javax.swing.event.ChangeListener;
-import javax.swing.JButton;
-import javax.swing.JComponent;
-import javax.swing.JFormattedTextField;
-import javax.swing.Timer;
-
-/*
- * Displays generations of John Conway's Game of Life.
- * Allows a user of the program to step through one generation
- * at a time or to run the generations based on a timer.
- */
-public class GameOfLifeDisplay extends JFrame {
-	/* 
-	 * Game of Life GUI that displays the game of life and allows customization
-	 * 
-	 * FEATURES -
-	 * 
-	 * 		> Can use mouse to set alive cells on the board
-	 * 			>Clicking on a cell will toggle it to the opposite state
-	 * 			>Clicking and dragging will allow user to "paint" alive cells on the board
-	 * 
-	 * 		> Tabs in the bottom of the console allow easy navigation
-	 * 
-	 * 		> 'Home' tab houses the basic controls for the game
-	 * 			> Random Setup - randomizes board
-	 * 			> Clear - clears board
-	 * 			> Next Gen - Goes forward by one generation
-	 * 			> Start/Stop - Allows auto-play of Game of Life
-	 * 			> Speed Slider allows user to change speed of auto-play
-	 * 				> 5 Speeds, each one 2.7x faster than the next
-	 * 				> Slowest speed on the left, Fastest on the right
-	 * 				> Allows consistent and fluid speed manipulation
-	 * 
-	 * 		> 'Customize' allows user to change board size and color 
-	 * 			> Input board width and height into textboxes
-	 * 			  **Note that inputting invalid numbers will throw an error in the console
-	 *  		> Click on the small colored square to toggle desired border color
-	 *  		> Click on the Create Game button to create the new board
-	 * 			
-	 * 		> 'Presets' tab stores cool/famous GameOfLife set-ups
-	 * 			> Each will reset board size to 50x50 but keep color the same
-	 * 
-	 **/
-	
-	private JPanel contentPane;
-	private JLabel txtGeneration = new JLabel();
-	private GameOfLife g; 
-	private BoardPanel boardPanel;
-	private Color borderColor;
-	private int ALIVE_CELL = Cell.ALIVE;
-	/**
-	 * Launch the application.
-	 */
-	public static void main(String[] args) {
-		EventQueue.invokeLater(new Runnable() {
-			public void run() {
-				try {
-					GameOfLifeDisplay frame = new GameOfLifeDisplay();
-					frame.setVisible(true);
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		});
-	}
-
-	/**
-	 * Create the frame. Adds a button panel to the frame and
-	 * initializes the usage of each button.
-	 */
-	public GameOfLifeDisplay() {
-		g = new GameOfLife();// call an appropriate constructor
-
-		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		setBounds(100, 100, 600, 400);
-		contentPane = new JPanel();
-		contentPane.setBorder(new EmptyBorder(5, 5, 5, 5));
-		contentPane.setLayout(new BorderLayout(0, 0));
-		setContentPane(contentPane);
-		
-		//Creates Mouse Event Handler that will always be attached to boardPanel
-		
-		MouseAdapter clickListener = new MouseAdapter() {
-
-			@Override
-			public void mousePressed(MouseEvent e) {
-				int numSquaresX = g.getWidth();
-				int numSquaresY = g.getHeight();
-				int squareSideX = boardPanel.getWidth() / numSquaresX;
-				int squareSideY = boardPanel.getHeight() / numSquaresY;				
-				
-				if (e.getX() / squareSideX < numSquaresX && e.getY() / squareSideY < numSquaresY) {
-					g.changeState(e.getX() / squareSideX, e.getY() / squareSideY);
-					repaint();
-				}
-			}
-			
-			@Override
-			public void mouseReleased(MouseEvent e) {
-				// TODO Auto-generated method stub
-				
-			}
-			
-			public void mouseDragged(MouseEvent e) {
-				int numSquaresX = g.getWidth();
-				int numSquaresY = g.getHeight();
-				int panelWidth = boardPanel.getWidth();
-				int panelHeight = boardPanel.getHeight();
-				int squareSideY, squareSideX;
-				
-				squareSideX = panelWidth / numSquaresX;
-				squareSideY = panelHeight / numSquaresY;				
-				if (e.getX() / squareSideX < g.getWidth() && e.getY() / squareSideY < g.getHeight() && e.getX() / squareSideX >= 0 && e.getY() / squareSideY >= 0) {
-					g.setCell(e.getX() / squareSideX, e.getY() / squareSideY, ALIVE_CELL);
-					repaint();
-				}
-			}
-			
-			
-		};
-		
-		
-		//Creates slider that will change delay between each generation during auto-playing
-		JSlider speedSlider = new JSlider(3, 7);
-		
-		//Sets multiplier effect slider will have between each setting
-		double jSliderSpeedMultiplier = 2.7;
-
-		speedSlider.setMajorTickSpacing(1);
-		speedSlider.setPaintTicks(true);
-		speedSlider.setInverted(true);
-		
-		/*
-		 * creates a Timer and defines what will occur when
-		 * it is run when the user clicks the "start" button
-		 */
-		Timer timer = new Timer((int)Math.pow(jSliderSpeedMultiplier, speedSlider.getValue()), new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent arg0) {
-				// TODO what should happen each time the Timer is fired off
-				g.nextGen();
-				txtGeneration.setText("Generation: " + g.getGen());
-				repaint();
-			}
-			
-		});
-
-		//Adds event handler to speed slider that will change whenever user moves slider
-		
-		speedSlider.addChangeListener(new ChangeListener(){
-			@Override
-			public void stateChanged(ChangeEvent e) {
-				timer.setDelay((int)Math.pow(jSliderSpeedMultiplier, speedSlider.getValue()));
-			}
-
-			
-		});
-
-		/*
-		 * creates the button panel
-		 */
-		JPanel buttonPanel = new JPanel();
-		contentPane.add(buttonPanel, BorderLayout.NORTH);
-		
-		/*
-		 * adds a button which allows the user to step through
-		 * the game one generation at a time
-		 */
-		JButton nextGenButton = new JButton("Next Gen");
-		nextGenButton.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				g.nextGen();
-				txtGeneration.setText("Generation: " + g.getGen());
-				repaint();
-			}
-			
-		});
-		
-		/*
-		 * creates a button that allows the game to run on 
-		 * a timer. The label toggles between "Start" and "Stop"
-		 */
-		JButton startStopButton = new JButton("Start");
-		startStopButton.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent arg0) {
-				if(startStopButton.getText().equals("Start")){
-					startStopButton.setText("Stop");
-					// TODO start the generations 
-					timer.start();
-				}
-				else{
-					startStopButton.setText("Start");
-					// TODO stop the generations
-					timer.stop();
-				}
-				
-			}
-			
-		});
-		
-		/*
-		 * Creates a button clears the board 		 * 
-		 */
-		
-		JButton clearButton = new JButton("Clear");
-		clearButton.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				g.clear();
-				txtGeneration.setText("Generation: " + g.getGen());
-				repaint();
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-			}
-			
-		});
-		
-		/*
-		 * creates a button that randomizes the board 
-		 */
-		
-		
-		JButton randomButton = new JButton("Random Setup");
-		randomButton.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				g.randomSetup();
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}				
-				txtGeneration.setText("Generation: " + g.getGen());
-				repaint();
-			}
-			
-		});
-
-		/*
-		 * displays the generation number
-		 */
-		txtGeneration.setText("Generation: 0");
-		buttonPanel.add(txtGeneration);
-		
-		/*
-		 * adds the panel which displays the Game of Life
-		 * board. See the BoardPanel class for details.
-		 */
-		boardPanel = new BoardPanel(g);
-		this.borderColor = Color.BLACK;
-		contentPane.add(boardPanel, BorderLayout.CENTER);
-		
-		//Adds mouse listeners for click & drag events
-		boardPanel.addMouseListener(clickListener);
-        boardPanel.addMouseMotionListener(clickListener);
-		
-        //Adds tabs
-		JTabbedPane tabs = new JTabbedPane();
-		contentPane.add(tabs, BorderLayout.SOUTH);
-		
-		//Creates home panel
-        JPanel panel = new JPanel(false);
-        panel.setLayout(new GridLayout(1, 1));
-		panel.add(randomButton);
-		panel.add(clearButton);
-		panel.add(nextGenButton);
-		panel.add(startStopButton);
-		panel.add(speedSlider);
-		panel.setPreferredSize(new Dimension(0, 10));
-        
-		//Adds home panel to tabs
-		tabs.addTab("Home", panel);
-		
-		//Creates panel for the 'customize' tab
-        JPanel panel2 = new JPanel(false);
-        
-        panel2.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 10));
-        panel2.setPreferredSize(new Dimension(0, 10));
-        
-        JFormattedTextField widthTextBox = new JFormattedTextField();
-        JFormattedTextField heightTextBox = new JFormattedTextField();
-        
-        widthTextBox.setPreferredSize(new Dimension(35, 20));
-        heightTextBox.setPreferredSize(new Dimension(35, 20));        
-        
-        panel2.add(new JLabel("Dimensions: "));
-        panel2.add(widthTextBox);
-        panel2.add(new JLabel("x "));
-        panel2.add(heightTextBox);
-
-		
-		JPanel colorBox = new JPanel();
-		colorBox.setPreferredSize(new Dimension(19, 19));
-		colorBox.setLayout(new CardLayout());
-		
-		JPanel bluePanel = new JPanel();
-		bluePanel.setBackground(Color.BLUE);
-		JPanel yellowPanel = new JPanel();
-		yellowPanel.setBackground(Color.YELLOW);
-		colorBox.add(bluePanel);
-		JPanel blackPanel = new JPanel();
-		blackPanel.setBackground(Color.BLACK);
-		colorBox.add(blackPanel);
-		colorBox.add(yellowPanel);
-		JPanel pinkPanel = new JPanel();
-		pinkPanel.setBackground(Color.PINK);
-		colorBox.add(pinkPanel);
-
-		/*
-		 * Creates a button removes current board panel and updates it with the new settings  
-		 */
-		
-		JButton newGameButton = new JButton("Create Game");
-		panel2.add(newGameButton);
-		newGameButton.setPreferredSize(new Dimension(125, 19));
-		newGameButton.addActionListener(new ActionListener(){
-			
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-				//Reads textboxes and creates a new game of life based on size inputs
-				g = new GameOfLife(Integer.parseInt(widthTextBox.getText()), Integer.parseInt(heightTextBox.getText()));
-				
-				//Updates borderColor based on which is currently toggled
-				borderColor = Color.BLACK;
-				if (yellowPanel.isVisible()) {
-					borderColor = Color.YELLOW;
-				}
-				else if (pinkPanel.isVisible()) {
-					borderColor = Color.PINK;
-				}
-				else if (bluePanel.isVisible()) {
-					borderColor = Color.BLUE;
-				}
-				
-				//Removes current board panel
-				contentPane.remove(boardPanel);
-				
-				//Creates and adds new one
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-		});
-
-		panel2.add(new JLabel(" Border Color: "));
-
-		panel2.add(colorBox);
-		
-		//Adds listener to colorBox so that the user can cycle by clicking on it
-		colorBox.addMouseListener(new MouseAdapter() {  
-	        public void mouseClicked(MouseEvent e) {              
-	    		((CardLayout)(colorBox.getLayout())).next(colorBox);
-	    		repaint();
-	        }                 
-	     });  
-	
-			
-		panel2.add(new JLabel("  "));
-		panel2.add(newGameButton);
-		tabs.addTab("Customize", panel2);
-
-		//Creates panel for 'Presets'
-        JPanel presetPanel = new JPanel();
-		presetPanel.setLayout(new GridLayout(2,2));
-        
-       /* 
-        * Following code creates all the buttons for the presets
-        * 
-        * Preset-code cell-setting code was generated by printing corresponding
-        * code to console based on user clicks on the GUI
-        * 
-        * */
-		
-		
-		JButton gliderPreset = new JButton("Gosper Glider");
-		gliderPreset.setPreferredSize(new Dimension(125, 20));;
-		gliderPreset.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-
-				contentPane.remove(boardPanel);
-				g = new GameOfLife();
-				g.setCell(2, 0, ALIVE_CELL);
-				g.setCell(2, 1, ALIVE_CELL);
-				g.setCell(2, 2, ALIVE_CELL);
-				g.setCell(1, 2, ALIVE_CELL);
-				g.setCell(0, 1, ALIVE_CELL);
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-			
-		});
-
-		JButton hLinePreset = new JButton("Horizontal Line");
-		hLinePreset.setPreferredSize(new Dimension(125, 20));;
-		hLinePreset.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-
-				contentPane.remove(boardPanel);
-				g = new GameOfLife();
-				for (int i = 0; i < g.getWidth(); i++) {
-					g.setCell(i, g.getHeight()/2, ALIVE_CELL);
-				}
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-			
-		});
-
-		JButton vLinePreset = new JButton("Vertical Line");
-		vLinePreset.setPreferredSize(new Dimension(125, 20));;
-		vLinePreset.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-
-				contentPane.remove(boardPanel);
-				g = new GameOfLife();
-				for (int i = 0; i < g.getHeight(); i++) {
-					g.setCell(g.getWidth()/2, i, ALIVE_CELL);
-				}
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-			
-		});
-
-
-		JButton dLinesPreset = new JButton("Diagonal Lines");
-		dLinesPreset.setPreferredSize(new Dimension(125, 20));;
-		dLinesPreset.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-
-				contentPane.remove(boardPanel);
-				g = new GameOfLife();
-				for (int i = 0; i < g.getHeight(); i++) {
-					g.setCell(i, i, ALIVE_CELL);
-					g.setCell(i, g.getHeight() - i - 1, ALIVE_CELL);
-					
-				}
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-			
-		});
-		JButton pentadecathlonPreset = new JButton("Pentadecathlon");
-		pentadecathlonPreset.setPreferredSize(new Dimension(125, 20));;
-		pentadecathlonPreset.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-
-				contentPane.remove(boardPanel);
-				g = new GameOfLife();
-				g.setCell(20, 24, ALIVE_CELL);
-				g.setCell(21, 24, ALIVE_CELL);
-				g.setCell(22, 25, ALIVE_CELL);
-				g.setCell(22, 23, ALIVE_CELL);
-				g.setCell(23, 24, ALIVE_CELL);
-				g.setCell(24, 24, ALIVE_CELL);
-				g.setCell(25, 24, ALIVE_CELL);
-				g.setCell(26, 24, ALIVE_CELL);
-				g.setCell(27, 23, ALIVE_CELL);
-				g.setCell(27, 25, ALIVE_CELL);
-				g.setCell(28, 24, ALIVE_CELL);
-				g.setCell(29, 24, ALIVE_CELL);
-
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-			
-		});
-
-		JButton gosperGunPreset = new JButton("Gosper Gun");
-		gosperGunPreset.setPreferredSize(new Dimension(125, 20));;
-		gosperGunPreset.addActionListener(new ActionListener(){
-
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				// TODO generate and display the next generation
-				if (timer.isRunning()) {
-					timer.stop();
-				}
-				if (startStopButton.getText().equals("Stop")) {
-					startStopButton.setText("Start");
-				}
-				
-
-				contentPane.remove(boardPanel);
-				g = new GameOfLife();
-				g.setCell(7, 13, ALIVE_CELL);
-				g.setCell(8, 13, ALIVE_CELL);
-				g.setCell(8, 14, ALIVE_CELL);
-				g.setCell(7, 14, ALIVE_CELL);
-				g.setCell(17, 14, ALIVE_CELL);
-				g.setCell(17, 13, ALIVE_CELL);
-				g.setCell(17, 15, ALIVE_CELL);
-				g.setCell(18, 16, ALIVE_CELL);
-				g.setCell(19, 17, ALIVE_CELL);
-				g.setCell(20, 17, ALIVE_CELL);
-				g.setCell(18, 12, ALIVE_CELL);
-				g.setCell(19, 11, ALIVE_CELL);
-				g.setCell(20, 11, ALIVE_CELL);
-				g.setCell(21, 14, ALIVE_CELL);
-				g.setCell(22, 12, ALIVE_CELL);
-				g.setCell(23, 13, ALIVE_CELL);
-				g.setCell(23, 14, ALIVE_CELL);
-				g.setCell(24, 14, ALIVE_CELL);
-				g.setCell(23, 15, ALIVE_CELL);
-				g.setCell(22, 16, ALIVE_CELL);
-				g.setCell(27, 13, ALIVE_CELL);
-				g.setCell(27, 12, ALIVE_CELL);
-				g.setCell(27, 11, ALIVE_CELL);
-				g.setCell(28, 11, ALIVE_CELL);
-				g.setCell(28, 12, ALIVE_CELL);
-				g.setCell(28, 13, ALIVE_CELL);
-				g.setCell(29, 14, ALIVE_CELL);
-				g.setCell(29, 10, ALIVE_CELL);
-				g.setCell(31, 10, ALIVE_CELL);
-				g.setCell(31, 9, ALIVE_CELL);
-				g.setCell(31, 14, ALIVE_CELL);
-				g.setCell(31, 15, ALIVE_CELL);
-				g.setCell(41, 12, ALIVE_CELL);
-				g.setCell(41, 11, ALIVE_CELL);
-				g.setCell(42, 11, ALIVE_CELL);
-				g.setCell(42, 12, ALIVE_CELL);
-
-				boardPanel = new BoardPanel(g, borderColor);
-				contentPane.add(boardPanel, BorderLayout.CENTER);
-				repaint();
-				boardPanel.addMouseListener(clickListener);
-		        boardPanel.addMouseMotionListener(clickListener);
-
-				txtGeneration.setText("Generation: " + g.getGen());
-				revalidate();
-				repaint();
-			}
-			
-		});
-
-		
-		presetPanel.add(gliderPreset);
-
-		presetPanel.add(hLinePreset);
-
-		presetPanel.add(vLinePreset);
-
-		presetPanel.add(dLinesPreset);
-
-		presetPanel.add(pentadecathlonPreset);
-		
-		presetPanel.add(gosperGunPreset);
-		
-		tabs.addTab("Presets", presetPanel);
-
-	}
-}
+import java.awt.BorderLayout;
+import java.awt.CardLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.DisplayMode;
+import java.awt.EventQueue;
+import java.awt.FlowLayout;
+import java.awt.GraphicsEnvironment;
+import java.awt.GridLayout;
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseWheelEvent;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JMenuItem;
+import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.JTabbedPane;
+import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JFormattedTextField;
+import javax.swing.Timer;
+
+/*
+ * Displays generations of John Conway's Game of Life.
+ * Allows a user of the program to step through one generation
+ * at a time or to run the generations on a simulation thread.
+ */
+public class GameOfLifeDisplay extends JFrame {
+	/* 
+	 * Game of Life GUI that displays the game of life and allows customization
+	 * 
+	 * FEATURES -
+	 * 
+	 * 		> Can use mouse to set alive cells on the board
+	 * 			>Clicking on a cell will toggle it to the opposite state
+	 * 			>Clicking and dragging will allow user to "paint" alive cells on the board
+	 * 			>Scrolling zooms in and out around the mouse, dragging with the right button pans the view
+	 * 			>Zoomed out past one pixel per cell, brighter pixels show denser areas of the board
+	 * 
+	 * 		> Generations are computed on a simulation thread, see Simulation, so the window stays responsive on large boards
+	 * 			>Mouse edits and button presses are queued and applied between generations
+	 * 
+	 * 		> Tabs in the bottom of the console allow easy navigation
+	 * 
+	 * 		> 'Home' tab houses the basic controls for the game
+	 * 			> Random Setup - randomizes board
+	 * 			> Clear - clears board
+	 * 			> Prev Gen - Goes back by one generation, as long as it is still recorded
+	 * 			> Next Gen - Goes forward by one generation
+	 * 			> Start/Stop - Allows auto-play of Game of Life
+	 * 			> Stop When Settled - Auto-play stops once the board is a still life or oscillator
+	 * 			> Fit View - zooms and pans so the whole board fits in the window again
+	 * 			> Max Speed - Auto-play steps as fast as the engine allows, the board is only drawn at the refresh rate of the screen
+	 * 			> Gens/Frame - Number of generations auto-play advances between two frames
+	 * 			> Speed Slider allows user to change speed of auto-play
+	 * 				> 5 Speeds, each one 2.7x faster than the next
+	 * 				> Slowest speed on the left, Fastest on the right
+	 * 				> Allows consistent and fluid speed manipulation
+	 * 			> History slider scrubs back and forth through the last generations, kept within a 64 MB budget
+	 * 
+	 * 		> 'Customize' allows user to change board size and color 
+	 * 			> Input board width and height into textboxes
+	 * 			  **Note that inputting invalid numbers will throw an error in the console
+	 *  		> Click on the small colored square to toggle desired border color
+	 *  		> Tick 'Unbounded' to play on an infinite plane, the board size only sets the visible window
+	 *  		> Tick 'Wrap Edges' to play on a torus, where cells leaving one edge come back on the opposite one
+	 *  		> Type a rulestring such as B36/S23 into the Rule textbox to play a Life-like variant
+	 *  		> Click on the Create Game button to create the new board
+	 * 			
+	 * 		> 'Presets' tab stores cool/famous GameOfLife set-ups
+	 * 			> Each will reset board size to 50x50 but keep color the same
+	 * 
+	 * 		> 'Metrics' tab records step and paint times, cells evaluated, births, deaths and allocation per generation
+	 * 			> Hovering over the summary shows the full report of Metrics
+	 * 
+	 **/
+	
+	private JPanel contentPane;
+	private JLabel txtGeneration = new JLabel();
+	private JLabel txtSpeed = new JLabel(); //Measured generations per second
+	private JLabel txtMetrics = new JLabel(); //Summary of the Metrics, while they are recorded
+	private GameOfLife g; //Belongs to the simulation thread once it is handed to sim, change it only through sim.edit
+	private Simulation sim; //Steps g on its own thread, the board panel draws the frames it publishes
+	private Runnable showFrame; //Updates the board panel and the labels from the latest frame of sim, on the event dispatch thread
+	private final AtomicBoolean framePending = new AtomicBoolean(); //sim published a frame that was not shown yet
+	private JSlider speedSlider;
+	private JCheckBox maxSpeedBox;
+	private final JCheckBox rewindBox = new JCheckBox("Rewind"); //Records past generations for Prev Gen and the history slider while ticked
+	private JSpinner gensPerFrameSpinner;
+	private boolean updatingHistory; //True while showFrame moves the history slider, so moving it does not seek
+	private BoardPanel boardPanel;
+	private Color borderColor;
+	private int ALIVE_CELL = Cell.ALIVE;
+	private static final int CYCLE_HISTORY = 120; //Longest oscillator period 'Stop When Settled' looks for
+	private static final double SPEED_MULTIPLIER = 2.7; //Multiplier effect the speed slider has between each setting
+	private static final long HISTORY_BUDGET = 64L << 20; //Bytes of past generations kept for Prev Gen and the history slider
+	private static final int DEFAULT_REFRESH_RATE = 60; //Frames per second drawn when the screen does not report its refresh rate
+	/**
+	 * Launch the application.
+	 */
+	public static void main(String[] args) {
+		EventQueue.invokeLater(new Runnable() {
+			public void run() {
+				try {
+					GameOfLifeDisplay frame = new GameOfLifeDisplay();
+					frame.setVisible(true);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Create the frame. Adds a button panel to the frame and
+	 * initializes the usage of each button.
+	 */
+	public GameOfLifeDisplay() {
+		g = new GameOfLife();// call an appropriate constructor
+
+		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		setBounds(100, 100, 600, 400);
+		contentPane = new JPanel();
+		contentPane.setBorder(new EmptyBorder(5, 5, 5, 5));
+		contentPane.setLayout(new BorderLayout(0, 0));
+		setContentPane(contentPane);
+		
+		//Creates Mouse Event Handler that will always be attached to boardPanel
+		
+		MouseAdapter clickListener = new MouseAdapter() {
+			private int lastX, lastY; //Last mouse position while panning
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				lastX = e.getX();
+				lastY = e.getY();
+				if (SwingUtilities.isRightMouseButton(e)) {
+					return;
+				}
+				Point cell = boardPanel.getCellAt(e.getX(), e.getY());
+				if (cell != null) {
+					sim.edit(game -> game.changeState(cell.x, cell.y));
+				}
+			}
+			
+			@Override
+			public void mouseReleased(MouseEvent e) {
+				// TODO Auto-generated method stub
+				
+			}
+			
+			public void mouseDragged(MouseEvent e) {
+				//Dragging with the right button pans the view
+				if (SwingUtilities.isRightMouseButton(e)) {
+					boardPanel.pan(e.getX() - lastX, e.getY() - lastY);
+					lastX = e.getX();
+					lastY = e.getY();
+					return;
+				}
+				Point cell = boardPanel.getCellAt(e.getX(), e.getY());
+				if (cell != null) {
+					sim.edit(game -> game.setCell(cell.x, cell.y, ALIVE_CELL));
+				}
+			}
+			
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				//Scrolling up zooms in on the cell under the mouse
+				boardPanel.zoom(-e.getWheelRotation(), e.getX(), e.getY());
+			}
+			
+		};
+		
+		
+		//Creates slider that will change delay between each generation during auto-playing
+		speedSlider = new JSlider(3, 7);
+
+		speedSlider.setMajorTickSpacing(1);
+		speedSlider.setPaintTicks(true);
+		speedSlider.setInverted(true);
+		
+		//Max Speed steps as fast as the engine allows, the slider is ignored while it is ticked
+		maxSpeedBox = new JCheckBox("Max Speed");
+		
+		//Number of generations advanced between two frames
+		gensPerFrameSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 1000000, 1));
+		
+		//Recording costs a copy of the board every generation, so it is off until the user asks for it
+		rewindBox.setToolTipText("Record past generations for Prev Gen and the history slider");
+		
+		JButton startStopButton = new JButton("Start");
+		JCheckBox settledBox = new JCheckBox("Stop When Settled");
+		
+		//Scrubs through the recorded generations, its value is the generation shown minus the oldest one recorded
+		JSlider historySlider = new JSlider(0, 0);
+		
+		/*
+		 * defines what happens when the simulation thread publishes a frame,
+		 * while running or after an edit was applied
+		 */
+		showFrame = new Runnable(){
+
+			@Override
+			public void run() {
+				//Only the cells that changed are repainted
+				boardPanel.repaintChanges();
+				txtGeneration.setText("Generation: " + sim.getGen());
+				
+				//The simulation stops by itself if a step failed
+				if (!sim.isRunning()) {
+					startStopButton.setText("Start");
+				}
+				
+				//The simulation stops by itself once the board repeats itself
+				if (settledBox.isSelected() && sim.getCyclePeriod() > 0) {
+					startStopButton.setText("Start");
+					String cycle = sim.getCyclePeriod() == 1 ? "still life" : "period " + sim.getCyclePeriod();
+					txtGeneration.setText("Generation: " + sim.getGen() + " (" + cycle + " since " + sim.getCycleStart() + ")");
+				}
+				
+				//Stretches the history slider over the recorded generations
+				updatingHistory = true;
+				historySlider.setEnabled(sim.getHistoryStart() >= 0);
+				historySlider.getModel().setRangeProperties((int) Math.max(sim.getGen() - sim.getHistoryStart(), 0), 0, 0,
+						(int) Math.max(sim.getHistoryEnd() - sim.getHistoryStart(), 0), false);
+				updatingHistory = false;
+			}
+			
+		};
+
+		/*
+		 * creates a Timer that draws the latest frame at the refresh rate of the screen,
+		 * so however fast the simulation runs only the generations that can be seen are drawn
+		 */
+		Timer frameTimer = new Timer(1000 / refreshRate(), new ActionListener(){
+			private long rateTime = System.nanoTime(), rateGen; //Start of the current generations per second measurement
+
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				if (framePending.getAndSet(false)) {
+					showFrame.run();
+				}
+				
+				//Measures generations per second over half a second
+				long now = System.nanoTime();
+				if (now - rateTime >= 500000000L) {
+					long gens = Math.max(sim.getGen() - rateGen, 0);
+					txtSpeed.setText(String.format("%,d gens/sec", gens * 1000000000L / (now - rateTime)));
+					rateTime = now;
+					rateGen = sim.getGen();
+					if (Metrics.isEnabled()) {
+						showMetrics();
+					}
+				}
+			}
+			
+		});
+		frameTimer.start();
+
+		settledBox.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				watchForSettling(settledBox.isSelected());
+			}
+			
+		});
+
+		rewindBox.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				boolean record = rewindBox.isSelected();
+				sim.edit(game -> {
+					if (game.isBounded()) {
+						game.setHistory(record ? HISTORY_BUDGET : 0);
+					}
+				});
+			}
+			
+		});
+
+		//Adds event handler to speed slider that will change whenever user moves slider
+		
+		speedSlider.addChangeListener(new ChangeListener(){
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				applySpeed();
+			}
+
+			
+		});
+		
+		maxSpeedBox.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				applySpeed();
+			}
+			
+		});
+		
+		gensPerFrameSpinner.addChangeListener(new ChangeListener(){
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				applySpeed();
+			}
+			
+		});
+
+		/*
+		 * creates the button panel
+		 */
+		JPanel buttonPanel = new JPanel();
+		contentPane.add(buttonPanel, BorderLayout.NORTH);
+		
+		/*
+		 * adds a button which allows the user to step through
+		 * the game one generation at a time
+		 */
+		JButton nextGenButton = new JButton("Next Gen");
+		nextGenButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				sim.edit(GameOfLife::nextGen);
+			}
+			
+		});
+		
+		/*
+		 * adds a button which steps the game back one generation,
+		 * as long as it is still recorded
+		 */
+		JButton prevGenButton = new JButton("Prev Gen");
+		prevGenButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				sim.setRunning(false);
+				startStopButton.setText("Start");
+				sim.edit(GameOfLife::previousGen);
+			}
+			
+		});
+		
+		/*
+		 * seeks to the generation the history slider is dragged to
+		 */
+		historySlider.addChangeListener(new ChangeListener(){
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (updatingHistory) {
+					return;
+				}
+				long target = sim.getHistoryStart() + historySlider.getValue();
+				sim.setRunning(false);
+				startStopButton.setText("Start");
+				
+				//The oldest generations may have been dropped since the slider was drawn
+				sim.edit(game -> {
+					if (target >= game.getHistoryStart() && target <= game.getHistoryEnd()) {
+						game.seek(target);
+					}
+				});
+			}
+			
+		});
+		
+		/*
+		 * creates a button that allows the game to run on 
+		 * the simulation thread. The label toggles between "Start" and "Stop"
+		 */
+		startStopButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				if(startStopButton.getText().equals("Start")){
+					startStopButton.setText("Stop");
+					// TODO start the generations 
+					applySpeed();
+					watchForSettling(settledBox.isSelected());
+					sim.setRunning(true);
+				}
+				else{
+					startStopButton.setText("Start");
+					// TODO stop the generations
+					sim.setRunning(false);
+				}
+				
+			}
+			
+		});
+		
+		/*
+		 * Creates a button clears the board 		 * 
+		 */
+		
+		JButton clearButton = new JButton("Clear");
+		clearButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				sim.setRunning(false);
+				sim.edit(GameOfLife::clear);
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+			}
+			
+		});
+		
+		/*
+		 * creates a button that randomizes the board 
+		 */
+		
+		
+		JButton randomButton = new JButton("Random Setup");
+		randomButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				sim.setRunning(false);
+				sim.edit(GameOfLife::randomSetup);
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+			}
+			
+		});
+
+		/*
+		 * Creates a button that fits the whole board into the window again
+		 */
+		
+		JButton fitButton = new JButton("Fit View");
+		fitButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				boardPanel.fitToPanel();
+			}
+			
+		});
+
+		/*
+		 * displays the generation number
+		 */
+		txtGeneration.setText("Generation: 0");
+		buttonPanel.add(txtGeneration);
+		
+		/*
+		 * displays the measured generations per second
+		 */
+		txtSpeed.setText("0 gens/sec");
+		buttonPanel.add(txtSpeed);
+		
+		/*
+		 * adds the panel which displays the Game of Life
+		 * board. See the BoardPanel class for details.
+		 */
+		boardPanel = new BoardPanel(newSimulation());
+		this.borderColor = Color.BLACK;
+		contentPane.add(boardPanel, BorderLayout.CENTER);
+		
+		//Adds mouse listeners for click & drag events
+		boardPanel.addMouseListener(clickListener);
+        boardPanel.addMouseMotionListener(clickListener);
+        boardPanel.addMouseWheelListener(clickListener);
+		
+        //Adds tabs
+		JTabbedPane tabs = new JTabbedPane();
+		contentPane.add(tabs, BorderLayout.SOUTH);
+		
+		//Creates home panel
+        JPanel panel = new JPanel(false);
+        panel.setLayout(new GridLayout(1, 1));
+		panel.add(randomButton);
+		panel.add(clearButton);
+		panel.add(prevGenButton);
+		panel.add(nextGenButton);
+		panel.add(startStopButton);
+		panel.add(settledBox);
+		panel.add(fitButton);
+		panel.add(speedSlider);
+		panel.add(maxSpeedBox);
+		JPanel gensPerFramePanel = new JPanel(new BorderLayout());
+		gensPerFramePanel.add(new JLabel(" Gens/Frame "), BorderLayout.WEST);
+		gensPerFramePanel.add(gensPerFrameSpinner, BorderLayout.CENTER);
+		panel.add(gensPerFramePanel);
+		JPanel historyPanel = new JPanel(new BorderLayout());
+		historyPanel.add(new JLabel(" History "), BorderLayout.WEST);
+		historyPanel.add(historySlider, BorderLayout.CENTER);
+		historyPanel.add(rewindBox, BorderLayout.EAST);
+		panel.add(historyPanel);
+		panel.setPreferredSize(new Dimension(0, 10));
+        
+		//Adds home panel to tabs
+		tabs.addTab("Home", panel);
+		
+		//Creates panel for the 'customize' tab
+        JPanel panel2 = new JPanel(false);
+        
+        panel2.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 10));
+        panel2.setPreferredSize(new Dimension(0, 10));
+        
+        JFormattedTextField widthTextBox = new JFormattedTextField();
+        JFormattedTextField heightTextBox = new JFormattedTextField();
+        
+        widthTextBox.setPreferredSize(new Dimension(35, 20));
+        heightTextBox.setPreferredSize(new Dimension(35, 20));        
+        
+        panel2.add(new JLabel("Dimensions: "));
+        panel2.add(widthTextBox);
+        panel2.add(new JLabel("x "));
+        panel2.add(heightTextBox);
+
+		
+		JPanel colorBox = new JPanel();
+		colorBox.setPreferredSize(new Dimension(19, 19));
+		colorBox.setLayout(new CardLayout());
+		
+		JPanel bluePanel = new JPanel();
+		bluePanel.setBackground(Color.BLUE);
+		JPanel yellowPanel = new JPanel();
+		yellowPanel.setBackground(Color.YELLOW);
+		colorBox.add(bluePanel);
+		JPanel blackPanel = new JPanel();
+		blackPanel.setBackground(Color.BLACK);
+		colorBox.add(blackPanel);
+		colorBox.add(yellowPanel);
+		JPanel pinkPanel = new JPanel();
+		pinkPanel.setBackground(Color.PINK);
+		colorBox.add(pinkPanel);
+
+		/*
+		 * Creates a button removes current board panel and updates it with the new settings  
+		 */
+		
+		JCheckBox unboundedBox = new JCheckBox("Unbounded");
+		JCheckBox wrapBox = new JCheckBox("Wrap Edges");
+		JTextField ruleTextBox = new JTextField(LifeRule.CONWAY.toString());
+		ruleTextBox.setPreferredSize(new Dimension(70, 20));
+		
+		JButton newGameButton = new JButton("Create Game");
+		panel2.add(newGameButton);
+		newGameButton.setPreferredSize(new Dimension(125, 19));
+		newGameButton.addActionListener(new ActionListener(){
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+				//Reads textboxes and creates a new game of life based on size inputs
+				int engineType = unboundedBox.isSelected() ? GameOfLife.SPARSE_ENGINE : GameOfLife.CELL_ENGINE;
+				g = new GameOfLife(Integer.parseInt(widthTextBox.getText()), Integer.parseInt(heightTextBox.getText()), engineType);
+				g.setRule(LifeRule.parse(ruleTextBox.getText()));
+				
+				//An unbounded plane has no edges to wrap
+				if (!unboundedBox.isSelected()) {
+					g.setToroidal(wrapBox.isSelected());
+				}
+				
+				//Updates borderColor based on which is currently toggled
+				borderColor = Color.BLACK;
+				if (yellowPanel.isVisible()) {
+					borderColor = Color.YELLOW;
+				}
+				else if (pinkPanel.isVisible()) {
+					borderColor = Color.PINK;
+				}
+				else if (bluePanel.isVisible()) {
+					borderColor = Color.BLUE;
+				}
+				
+				//Removes current board panel
+				contentPane.remove(boardPanel);
+				
+				//Creates and adds new one
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+		});
+
+		panel2.add(new JLabel(" Border Color: "));
+
+		panel2.add(colorBox);
+		
+		//Adds listener to colorBox so that the user can cycle by clicking on it
+		colorBox.addMouseListener(new MouseAdapter() {  
+	        public void mouseClicked(MouseEvent e) {              
+	    		((CardLayout)(colorBox.getLayout())).next(colorBox);
+	    		repaint();
+	        }                 
+	     });  
+	
+			
+		panel2.add(new JLabel("  "));
+		panel2.add(unboundedBox);
+		panel2.add(wrapBox);
+		panel2.add(new JLabel(" Rule: "));
+		panel2.add(ruleTextBox);
+		panel2.add(new JLabel("  "));
+		panel2.add(newGameButton);
+		tabs.addTab("Customize", panel2);
+
+		//Creates panel for 'Presets'
+        JPanel presetPanel = new JPanel();
+		presetPanel.setLayout(new GridLayout(2,2));
+        
+       /* 
+        * Following code creates all the buttons for the presets
+        * 
+        * Glider, Pentadecathlon and Gosper Gun are read from RLE files in the patterns folder,
+        * the line presets depend on the board size so they are still drawn in code
+        * 
+        * */
+		
+		
+		JButton gliderPreset = new JButton("Gosper Glider");
+		gliderPreset.setPreferredSize(new Dimension(125, 20));;
+		gliderPreset.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+
+				contentPane.remove(boardPanel);
+				g = new GameOfLife();
+				loadPreset("patterns/glider.rle");
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+			
+		});
+
+		JButton hLinePreset = new JButton("Horizontal Line");
+		hLinePreset.setPreferredSize(new Dimension(125, 20));;
+		hLinePreset.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+
+				contentPane.remove(boardPanel);
+				g = new GameOfLife();
+				for (int i = 0; i < g.getWidth(); i++) {
+					g.setCell(i, g.getHeight()/2, ALIVE_CELL);
+				}
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+			
+		});
+
+		JButton vLinePreset = new JButton("Vertical Line");
+		vLinePreset.setPreferredSize(new Dimension(125, 20));;
+		vLinePreset.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+
+				contentPane.remove(boardPanel);
+				g = new GameOfLife();
+				for (int i = 0; i < g.getHeight(); i++) {
+					g.setCell(g.getWidth()/2, i, ALIVE_CELL);
+				}
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+			
+		});
+
+
+		JButton dLinesPreset = new JButton("Diagonal Lines");
+		dLinesPreset.setPreferredSize(new Dimension(125, 20));;
+		dLinesPreset.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+
+				contentPane.remove(boardPanel);
+				g = new GameOfLife();
+				for (int i = 0; i < g.getHeight(); i++) {
+					g.setCell(i, i, ALIVE_CELL);
+					g.setCell(i, g.getHeight() - i - 1, ALIVE_CELL);
+					
+				}
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+			
+		});
+		JButton pentadecathlonPreset = new JButton("Pentadecathlon");
+		pentadecathlonPreset.setPreferredSize(new Dimension(125, 20));;
+		pentadecathlonPreset.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+
+				contentPane.remove(boardPanel);
+				g = new GameOfLife();
+				loadPreset("patterns/pentadecathlon.rle");
+
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+			
+		});
+
+		JButton gosperGunPreset = new JButton("Gosper Gun");
+		gosperGunPreset.setPreferredSize(new Dimension(125, 20));;
+		gosperGunPreset.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// TODO generate and display the next generation
+				if (startStopButton.getText().equals("Stop")) {
+					startStopButton.setText("Start");
+				}
+				
+
+				contentPane.remove(boardPanel);
+				g = new GameOfLife();
+				loadPreset("patterns/gosper-gun.rle");
+
+				boardPanel = new BoardPanel(newSimulation(), borderColor);
+				contentPane.add(boardPanel, BorderLayout.CENTER);
+				repaint();
+				boardPanel.addMouseListener(clickListener);
+		        boardPanel.addMouseMotionListener(clickListener);
+		        boardPanel.addMouseWheelListener(clickListener);
+
+				txtGeneration.setText("Generation: " + sim.getGen());
+				revalidate();
+				repaint();
+			}
+			
+		});
+
+		
+		presetPanel.add(gliderPreset);
+
+		presetPanel.add(hLinePreset);
+
+		presetPanel.add(vLinePreset);
+
+		presetPanel.add(dLinesPreset);
+
+		presetPanel.add(pentadecathlonPreset);
+		
+		presetPanel.add(gosperGunPreset);
+		
+		tabs.addTab("Presets", presetPanel);
+		
+		//Creates panel for the 'metrics' tab, which records step and paint times while its box is ticked
+		JPanel metricsPanel = new JPanel(false);
+		metricsPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 10, 10));
+		metricsPanel.setPreferredSize(new Dimension(0, 10));
+		JCheckBox metricsBox = new JCheckBox("Record Metrics");
+		JButton resetMetricsButton = new JButton("Reset");
+		txtMetrics.setText("Not recording");
+		
+		metricsBox.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				Metrics.setEnabled(metricsBox.isSelected());
+				if (!metricsBox.isSelected()) {
+					txtMetrics.setText("Not recording");
+				}
+			}
+			
+		});
+		
+		resetMetricsButton.addActionListener(new ActionListener(){
+
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				Metrics.reset();
+				if (Metrics.isEnabled()) {
+					showMetrics();
+				}
+			}
+			
+		});
+		
+		metricsPanel.add(metricsBox);
+		metricsPanel.add(resetMetricsButton);
+		metricsPanel.add(txtMetrics);
+		tabs.addTab("Metrics", metricsPanel);
+
+	}
+
+	private Simulation newSimulation() {
+		/* 
+		 * Closes the current simulation and hands g to a new, paused one
+		 * Its frames are only flagged here, the frame timer shows the latest one at its next tick
+		 * 
+		 **/
+		
+		if (sim != null) {
+			sim.close();
+		}
+		if (rewindBox.isSelected() && g.isBounded()) {
+			g.setHistory(HISTORY_BUDGET);
+		}
+		sim = new Simulation(g);
+		sim.setFrameListener(() -> framePending.set(true));
+		return sim;
+	}
+	
+	private void applySpeed() {
+		/* 
+		 * Passes the speed controls of the 'Home' tab on to the simulation
+		 * Max Speed steps without any delay, otherwise the slider sets the delay between steps
+		 * 
+		 **/
+		
+		speedSlider.setEnabled(!maxSpeedBox.isSelected());
+		sim.setDelay(maxSpeedBox.isSelected() ? 0 : (long)Math.pow(SPEED_MULTIPLIER, speedSlider.getValue()));
+		sim.setGenerationsPerStep((Integer) gensPerFrameSpinner.getValue());
+	}
+	
+	private void showMetrics() {
+		/* 
+		 * Shows the mean step time, paint time, cells evaluated, births, deaths and allocation per generation in the 'Metrics' tab
+		 * Hovering over them shows the full report
+		 * 
+		 **/
+		
+		txtMetrics.setText(String.format("Step %.3f ms (p99 %.3f ms)   Paint %.3f ms   %,.0f cells   +%,.0f -%,.0f   %,.0f bytes",
+				Metrics.STEP_TIME.getMean() / 1e6, Metrics.STEP_TIME.getPercentile(0.99) / 1e6, Metrics.PAINT_TIME.getMean() / 1e6,
+				Metrics.STEP_CELLS.getMean(), Metrics.STEP_BIRTHS.getMean(), Metrics.STEP_DEATHS.getMean(),
+				Metrics.STEP_ALLOCATION.getMean()));
+		txtMetrics.setToolTipText("<html><pre>" + Metrics.report() + "</pre></html>");
+	}
+	
+	private static int refreshRate() {
+		/* 
+		 * Returns the refresh rate of the default screen, DEFAULT_REFRESH_RATE if it is unknown
+		 * 
+		 **/
+		
+		int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+		return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : rate;
+	}
+	
+	private void watchForSettling(boolean stop) {
+		/* 
+		 * Makes the simulation stop by itself once the board is a still life or oscillator, turning on cycle detection if needed
+		 * 
+		 **/
+		
+		sim.setStopWhenSettled(stop);
+		if (stop) {
+			sim.edit(game -> {
+				if (game.getCycleHistory() == 0) {
+					game.setCycleDetection(CYCLE_HISTORY);
+				}
+			});
+		}
+	}
+	
+	private void loadPreset(String resource) {
+		/* 
+		 * Reads a preset pattern from an RLE or plaintext resource file onto the current game
+		 * 
+		 **/
+		
+		try {
+			PatternIO.readResource(resource, g, 0, 0);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
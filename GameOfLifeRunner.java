@@ -0,0 +1,226 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameOfLifeRunner {
+	/*
+	 * Headless command line runner for long Game of Life runs
+	 * Loads or randomizes a board, steps it as fast as the chosen engine allows and prints timing and population
+	 * Uses no AWT or Swing classes, so it starts fast and runs on servers without a display
+	 *
+	 * Usage: java GameOfLifeRunner [options]
+	 * 		--width W, --height H	board size (default 1024 x 1024)
+	 * 		--gens N				generations to step (default 1000)
+	 * 		--engine NAME			one of GameOfLife.ENGINE_NAMES (default bit)
+	 * 		--rule RULE				rulestring such as B36/S23 (default B3/S23)
+	 * 		--threads T				parallelism for engines that support it (default 1)
+	 * 		--storage NAME			where the cell engine keeps its board, one of GameOfLife.STORAGE_NAMES (default byte)
+	 * 		--buffered				step without allocating, moves the cell engine to byte storage if needed, see GameOfLife.setDoubleBuffered
+	 * 		--torus					wrap the edges around (cell and bit engines)
+	 * 		--density D				random soup with the given density (default 0.5)
+	 * 		--load FILE				board in the format written by GameOfLife.toString, instead of a random soup
+	 * 		--pattern FILE			RLE or plaintext pattern placed on an empty board, instead of a random soup
+	 * 		--restore FILE			binary snapshot written by BoardSnapshot, instead of a random soup
+	 * 		--save FILE				writes the final board as RLE
+	 * 		--snapshot FILE			writes the final board as a binary snapshot
+	 * 		--report K				print progress every K generations (default 0, only the summary)
+	 * 		--cycles H				detect still lifes and oscillators of period up to H, skipping whole periods once found
+	 * 		--metrics				record Metrics (step time, cells evaluated, births and deaths, allocation) and print them at the end
+	 *
+	 * The same measurements are committed as LifeEvents when a flight recording is started, for instance with
+	 * 		java -XX:StartFlightRecording=filename=life.jfr GameOfLifeRunner ...
+	 *
+	 * */
+
+	public static void main(String[] args) throws IOException {
+		int width = 1024, height = 1024;
+		long gens = 1000, report = 0;
+		int engine = GameOfLife.BIT_ENGINE, threads = 1, cycles = 0, storage = GameOfLife.BYTE_STORAGE;
+		boolean buffered = false, torus = false, metrics = false;
+		double density = 0.5;
+		String load = null, pattern = null, save = null, restore = null, snapshot = null;
+		LifeRule rule = null;
+
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--buffered")) {
+				buffered = true;
+				continue;
+			}
+			if (option.equals("--torus")) {
+				torus = true;
+				continue;
+			}
+			if (option.equals("--metrics")) {
+				metrics = true;
+				continue;
+			}
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + option);
+			}
+			String value = args[++i];
+			if (option.equals("--width")) {
+				width = Integer.parseInt(value);
+			}
+			else if (option.equals("--height")) {
+				height = Integer.parseInt(value);
+			}
+			else if (option.equals("--gens")) {
+				gens = Long.parseLong(value);
+			}
+			else if (option.equals("--engine")) {
+				engine = GameOfLife.engineForName(value);
+			}
+			else if (option.equals("--storage")) {
+				storage = GameOfLife.storageForName(value);
+			}
+			else if (option.equals("--rule")) {
+				rule = LifeRule.parse(value);
+			}
+			else if (option.equals("--threads")) {
+				threads = Integer.parseInt(value);
+			}
+			else if (option.equals("--density")) {
+				density = Double.parseDouble(value);
+			}
+			else if (option.equals("--load")) {
+				load = value;
+			}
+			else if (option.equals("--pattern")) {
+				pattern = value;
+			}
+			else if (option.equals("--save")) {
+				save = value;
+			}
+			else if (option.equals("--restore")) {
+				restore = value;
+			}
+			else if (option.equals("--snapshot")) {
+				snapshot = value;
+			}
+			else if (option.equals("--report")) {
+				report = Long.parseLong(value);
+			}
+			else if (option.equals("--cycles")) {
+				cycles = Integer.parseInt(value);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown option: " + option);
+			}
+		}
+
+		Metrics.setEnabled(metrics);
+		long setupStart = System.nanoTime();
+		GameOfLife game;
+		if (restore != null) {
+			game = BoardSnapshot.read(Paths.get(restore), engine);
+		}
+		else if (load != null) {
+			game = loadBoard(load, engine);
+		}
+		else if (pattern != null) {
+			game = new GameOfLife(width, height, engine);
+			try (Reader in = new FileReader(pattern)) {
+				PatternIO.read(in, game, 0, 0);
+			}
+		}
+		else {
+			game = new GameOfLife(width, height, engine);
+			game.randomSetup(density);
+		}
+		game.setStorage(storage);
+		if (rule != null) {
+			game.setRule(rule);
+		}
+		game.setToroidal(torus);
+		game.setParallelism(threads);
+		game.setDoubleBuffered(buffered);
+		game.setCycleDetection(cycles);
+		long setupTime = System.nanoTime() - setupStart;
+
+		System.out.printf("engine=%s%s rule=%s threads=%d board=%dx%d%s population=%d setup=%.1f ms%n",
+				GameOfLife.ENGINE_NAMES[engine], engine == GameOfLife.CELL_ENGINE ? " storage=" + GameOfLife.STORAGE_NAMES[game.getStorageType()] : "", game.getRule(), threads, game.getWidth(), game.getHeight(), torus ? " torus" : "",
+				game.countLivingCells(), setupTime / 1e6);
+
+		long start = System.nanoTime();
+		long done = 0;
+		while (done < gens) {
+			long chunk = report > 0 ? Math.min(report, gens - done) : gens - done;
+			game.advance(chunk);
+			done += chunk;
+			if (report > 0) {
+				printProgress(game, done, System.nanoTime() - start);
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		game.setParallelism(1);
+
+		double seconds = elapsed / 1e9;
+		System.out.printf("generations=%d time=%.3f s gens/sec=%.1f cells/sec=%.4g population=%d%n",
+				gens, seconds, gens / seconds, (double) gens * game.getWidth() * game.getHeight() / seconds,
+				game.countLivingCells());
+		if (game.getCyclePeriod() > 0) {
+			System.out.printf("cycle period=%d start=%d%n", game.getCyclePeriod(), game.getCycleStart());
+		}
+
+		if (save != null) {
+			try (Writer out = new BufferedWriter(new FileWriter(save))) {
+				PatternIO.writeRle(game, out);
+			}
+		}
+		if (snapshot != null) {
+			BoardSnapshot.write(game, Paths.get(snapshot));
+		}
+		if (metrics) {
+			System.out.print(Metrics.report());
+		}
+	}
+
+	private static void printProgress(GameOfLife game, long done, long elapsed) {
+		System.out.printf("gen=%d time=%.3f s gens/sec=%.1f population=%d%n",
+				game.getGen(), elapsed / 1e9, done / (elapsed / 1e9), game.countLivingCells());
+	}
+
+	private static GameOfLife loadBoard(String path, int engine) throws IOException {
+		/*
+		 * Reads a board written by GameOfLife.toString: one line per row, one 'A' or 'D' per cell separated by spaces
+		 * Throws IllegalArgumentException if the rows are not all the same length
+		 *
+		 * */
+
+		List<String[]> rows = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty()) {
+					rows.add(line.split("\\s+"));
+				}
+			}
+		}
+		if (rows.isEmpty()) {
+			throw new IllegalArgumentException("Empty board file: " + path);
+		}
+
+		GameOfLife game = new GameOfLife(rows.get(0).length, rows.size(), engine);
+		for (int y = 0; y < rows.size(); y++) {
+			String[] cells = rows.get(y);
+			if (cells.length != game.getWidth()) {
+				throw new IllegalArgumentException("Row " + y + " of " + path + " has " + cells.length + " cells, expected " + game.getWidth());
+			}
+			for (int x = 0; x < cells.length; x++) {
+				if (cells[x].equals("A")) {
+					game.setAlive(x, y);
+				}
+			}
+		}
+		return game;
+	}
+}
@@ -0,0 +1,222 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameOfLifeTimings {
+	/*
+	 * Rough timings of the simulation and rendering hot paths of every engine
+	 *
+	 * Measures nextGen, countLivingNeighbors, countLivingCells, randomSetup and BoardPanel.paintComponent
+	 * for each combination of engine, board size, pattern and density, after a warmup period,
+	 * and prints operations/sec, cell updates/sec and bytes allocated per operation
+	 * A soup is seeded again every SOUP_GENERATIONS generations, outside of the measured time, so nextGen is measured on
+	 * a young soup rather than on the ash it settles into; paintComponent renders the whole view again every time,
+	 * and paintChanges renders the cells one nextGen changed, the nextGen itself not being measured
+	 *
+	 * This is a timing harness, not a benchmark: a plain loop timed with System.nanoTime on one JVM, without JMH,
+	 * so it does not fork, guard against dead code or constant folding beyond a sink, or report any error margin;
+	 * use it to compare engines and spot regressions by an order of magnitude, not to quote numbers
+	 *
+	 * Usage: java GameOfLifeTimings [--engines cell,bit,...] [--sizes 64,256,...] [--patterns soup,gun,empty]
+	 * 		[--densities 0.5,...] [--seconds 1.0] [--threads 1]
+	 *
+	 * */
+
+	private static final int[] DEFAULT_SIZES = {64, 256, 1024, 4096, 8192};
+	private static final int PAINT_SIZE = 1024; //Side of the image paintComponent renders into
+	private static final int SOUP_GENERATIONS = 64; //Generations a soup is stepped before it is seeded again
+
+	//Largest board (in cells) each engine is timed on, indexed by engine constant, so a full run fits in memory
+	private static final long[] MAX_CELLS = {1L << 20, 1L << 26, 1L << 24, 1L << 22, 1L << 26, 1L << 26};
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static double seconds = 1.0; //Measured time per timing, warmup takes half of it
+	private static volatile long sink; //Results are added here so the JIT can not drop the calls that produce them
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+
+		List<Integer> engines = new ArrayList<>();
+		for (int i = 0; i < GameOfLife.ENGINE_NAMES.length; i++) {
+			engines.add(i);
+		}
+		int[] sizes = DEFAULT_SIZES;
+		String[] patterns = {"soup", "gun", "empty"};
+		double[] densities = {0.5};
+		int threads = 1;
+
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			String value = args[i + 1];
+			if (args[i].equals("--engines")) {
+				engines.clear();
+				for (String name : value.split(",")) {
+					engines.add(GameOfLife.engineForName(name));
+				}
+			}
+			else if (args[i].equals("--sizes")) {
+				String[] parts = value.split(",");
+				sizes = new int[parts.length];
+				for (int j = 0; j < parts.length; j++) {
+					sizes[j] = Integer.parseInt(parts[j]);
+				}
+			}
+			else if (args[i].equals("--patterns")) {
+				patterns = value.split(",");
+			}
+			else if (args[i].equals("--densities")) {
+				String[] parts = value.split(",");
+				densities = new double[parts.length];
+				for (int j = 0; j < parts.length; j++) {
+					densities[j] = Double.parseDouble(parts[j]);
+				}
+			}
+			else if (args[i].equals("--seconds")) {
+				seconds = Double.parseDouble(value);
+			}
+			else if (args[i].equals("--threads")) {
+				threads = Integer.parseInt(value);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		System.out.printf("%-20s %-9s %6s %-6s %7s %14s %16s %12s%n",
+				"timing", "engine", "size", "pattern", "density", "ops/sec", "cell-updates/sec", "bytes/op");
+		for (int engine : engines) {
+			for (int size : sizes) {
+				if ((long) size * size > MAX_CELLS[engine]) {
+					System.out.printf("%-20s %-9s %6d skipped, larger than %d cells%n",
+							"*", GameOfLife.ENGINE_NAMES[engine], size, MAX_CELLS[engine]);
+					continue;
+				}
+				for (String pattern : patterns) {
+					for (double density : pattern.equals("soup") ? densities : new double[] {0}) {
+						run(engine, size, pattern, density, threads);
+					}
+				}
+			}
+		}
+	}
+
+	private static void run(int engine, int size, String pattern, double density, int threads) throws IOException {
+		/*
+		 * Runs every timing on one board configuration
+		 *
+		 * */
+
+		GameOfLife game = setup(engine, size, pattern, density);
+		game.setParallelism(threads);
+		long cells = (long) size * size;
+
+		Runnable reseed = () -> { //Keeps a soup young, other patterns are stepped as they are
+			if (pattern.equals("soup") && game.getGen() >= SOUP_GENERATIONS) {
+				game.randomSetup(density);
+			}
+		};
+		report("nextGen", engine, size, pattern, density, cells, measure(reseed, game::nextGen));
+		report("countLivingCells", engine, size, pattern, density, cells, measure(null, () -> sink += game.countLivingCells()));
+		report("countLivingNeighbors", engine, size, pattern, density, cells, measure(null, () -> {
+			for (int y = 0; y < size; y++) {
+				for (int x = 0; x < size; x++) {
+					sink += game.countLivingNeighbors(x, y);
+				}
+			}
+		}));
+		report("randomSetup", engine, size, pattern, density, cells, measure(null, () -> game.randomSetup(density)));
+
+		GameOfLife painted = setup(engine, size, pattern, density);
+		BoardPanel panel = new BoardPanel(painted);
+		panel.setSize(PAINT_SIZE, PAINT_SIZE);
+		BufferedImage image = new BufferedImage(PAINT_SIZE, PAINT_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		report("paintComponent", engine, size, pattern, density, cells, measure(panel::fitToPanel, () -> panel.paintComponent(graphics)));
+		report("paintChanges", engine, size, pattern, density, cells, measure(() -> {
+			if (pattern.equals("soup") && painted.getGen() >= SOUP_GENERATIONS) {
+				painted.randomSetup(density);
+			}
+			painted.nextGen();
+		}, () -> panel.paintComponent(graphics)));
+		graphics.dispose();
+
+		game.setParallelism(1);
+	}
+
+	private static GameOfLife setup(int engine, int size, String pattern, double density) throws IOException {
+		/*
+		 * Builds a board of the given engine and size holding the given pattern
+		 *
+		 * */
+
+		GameOfLife game = new GameOfLife(size, size, engine);
+		if (pattern.equals("soup")) {
+			game.randomSetup(density);
+		}
+		else if (pattern.equals("gun")) {
+			PatternIO.readResource("patterns/gosper-gun.rle", game, 0, 0);
+		}
+		else if (!pattern.equals("empty")) {
+			throw new IllegalArgumentException("Unknown pattern: " + pattern);
+		}
+		return game;
+	}
+
+	private static double[] measure(Runnable prepare, Runnable operation) {
+		/*
+		 * Runs operation for half of the measured time to warm up, then for the measured time
+		 * prepare, unless null, runs before every operation and is neither timed nor counted in the allocation
+		 * Returns {operations per second, bytes allocated per operation}
+		 *
+		 * */
+
+		long warmupEnd = System.nanoTime() + (long) (seconds * 0.5e9);
+		do {
+			if (prepare != null) {
+				prepare.run();
+			}
+			operation.run();
+		} while (System.nanoTime() < warmupEnd);
+
+		if (prepare == null) {
+			long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			long end = start + (long) (seconds * 1e9);
+			long operations = 0;
+			long now;
+			do {
+				operation.run();
+				operations++;
+				now = System.nanoTime();
+			} while (now < end);
+			long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+			return new double[] {operations * 1e9 / (now - start), (double) allocated / operations};
+		}
+
+		//Times each operation on its own, leaving out prepare
+		long end = System.nanoTime() + (long) (seconds * 1e9);
+		long elapsed = 0, allocated = 0, operations = 0;
+		do {
+			prepare.run();
+			long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			operation.run();
+			elapsed += System.nanoTime() - start;
+			allocated += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+			operations++;
+		} while (System.nanoTime() < end);
+		return new double[] {operations * 1e9 / Math.max(elapsed, 1), (double) allocated / operations};
+	}
+
+	private static void report(String timing, int engine, int size, String pattern, double density, long cells, double[] result) {
+		System.out.printf("%-20s %-9s %6d %-6s %7.2f %14.1f %16.4g %12.1f%n", timing, GameOfLife.ENGINE_NAMES[engine],
+				size, pattern, density, result[0], result[0] * cells, result[1]);
+	}
+}
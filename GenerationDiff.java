@@ -0,0 +1,162 @@
+import java.util.Arrays;
+
+public final class GenerationDiff {
+	/*
+	 * Cells that were born and cells that died between two generations of a GameOfLife, published to its subscribers
+	 *
+	 * Coordinates are packed into longs as y << 32 | x and sorted, which is row by row from the top left
+	 * Diffs of consecutive generations merge into one, so a subscriber that falls behind gets fewer, larger diffs
+	 * instead of a queue of every generation it missed
+	 *
+	 * The arrays are shared by every subscriber and must not be modified
+	 *
+	 * */
+
+	private static final long[] NONE = new long[0];
+
+	private final long fromGen, gen;
+	private final long[] births, deaths;
+
+	GenerationDiff(long fromGen, long gen, long[] births, long[] deaths) {
+		/*
+		 * Constructs the diff from generation fromGen to generation gen, taking over the sorted packed arrays
+		 *
+		 * */
+
+		this.fromGen = fromGen;
+		this.gen = gen;
+		this.births = births;
+		this.deaths = deaths;
+	}
+
+	public static long pack(int x, int y) {
+		/*
+		 * Returns the packed coordinate of the cell at (x, y)
+		 *
+		 * */
+
+		return (long) y << 32 | (x & 0xFFFFFFFFL);
+	}
+
+	public static int x(long packed) {
+		/*
+		 * Returns x of a packed coordinate
+		 *
+		 * */
+
+		return (int) packed;
+	}
+
+	public static int y(long packed) {
+		/*
+		 * Returns y of a packed coordinate
+		 *
+		 * */
+
+		return (int) (packed >> 32);
+	}
+
+	public long getFromGen() {
+		/*
+		 * Returns the generation the diff starts from, the generation of the diff published before it
+		 *
+		 * */
+
+		return this.fromGen;
+	}
+
+	public long getGen() {
+		/*
+		 * Returns the generation the diff leads to
+		 *
+		 * */
+
+		return this.gen;
+	}
+
+	public long[] getBirths() {
+		/*
+		 * Returns the packed coordinates of the cells that were DEAD in fromGen and are ALIVE in gen
+		 *
+		 * */
+
+		return this.births;
+	}
+
+	public long[] getDeaths() {
+		/*
+		 * Returns the packed coordinates of the cells that were ALIVE in fromGen and are DEAD in gen
+		 *
+		 * */
+
+		return this.deaths;
+	}
+
+	public boolean isEmpty() {
+		/*
+		 * Returns true if no cell changed
+		 *
+		 * */
+
+		return births.length == 0 && deaths.length == 0;
+	}
+
+	public GenerationDiff merge(GenerationDiff next) {
+		/*
+		 * Returns the diff from this diff's fromGen to the generation of next, which must start where this one ends
+		 * A cell born in one and dying in the other did not change at all
+		 *
+		 * */
+
+		return new GenerationDiff(fromGen, next.gen, union(difference(births, next.deaths), difference(next.births, deaths)),
+				union(difference(deaths, next.births), difference(next.deaths, births)));
+	}
+
+	private static long[] difference(long[] a, long[] b) {
+		/*
+		 * Returns the sorted coordinates of a that are not in b
+		 *
+		 * */
+
+		if (b.length == 0) {
+			return a;
+		}
+		long[] out = new long[a.length];
+		int n = 0, j = 0;
+		for (long c : a) {
+			while (j < b.length && b[j] < c) {
+				j++;
+			}
+			if (j == b.length || b[j] != c) {
+				out[n++] = c;
+			}
+		}
+		return n == a.length ? a : n == 0 ? NONE : Arrays.copyOf(out, n);
+	}
+
+	private static long[] union(long[] a, long[] b) {
+		/*
+		 * Returns the sorted coordinates of a and b, which have none in common
+		 *
+		 * */
+
+		if (b.length == 0) {
+			return a;
+		}
+		if (a.length == 0) {
+			return b;
+		}
+		long[] out = new long[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			out[n++] = a[i] < b[j] ? a[i++] : b[j++];
+		}
+		while (i < a.length) {
+			out[n++] = a[i++];
+		}
+		while (j < b.length) {
+			out[n++] = b[j++];
+		}
+		return out;
+	}
+}
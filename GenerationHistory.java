@@ -0,0 +1,350 @@
+import java.util.Arrays;
+
+public class GenerationHistory {
+	/*
+	 * Bounded record of the last generations of a GameOfLife, used to step back and to seek to any recorded generation
+	 *
+	 * Every recorded generation is stored as the XOR of its bit-packed board with the generation before it,
+	 * run-length encoded: runs of unchanged words cost nothing, so a generation costs about as much as the cells that flipped
+	 * Going back one generation is a single XOR of its delta into the board
+	 * Every so often a generation also stores its whole board as a keyframe, encoded the same way,
+	 * so seeking far from the current generation starts from the nearest keyframe instead of applying every delta in between
+	 * A keyframe is taken once the deltas since the last one add up to more than the keyframe itself
+	 *
+	 * Generations are kept in a ring buffer, the oldest keyframe and the deltas after it are dropped once the memory budget is used up
+	 * The budget counts the recorded generations only, the history also keeps two bit-packed copies of the board
+	 *
+	 * Encoded streams are a sequence of runs, each a header long (zero words skipped << 32 | literal words following)
+	 * followed by its literal words, over the rows of the board laid end to end
+	 *
+	 * */
+
+	private static final int ENTRY_BYTES = 16; //Two references per recorded generation
+	private static final int ARRAY_BYTES = 16; //Header of an array
+
+	private final int height, words;
+	private final long budget;
+
+	//Ring buffer of recorded generations, generation first + i is at index (head + i) % capacity
+	private long[][] deltas; //XOR with the generation before, null for the first generation of the history
+	private long[][] keys; //Whole board, null unless the generation is a keyframe
+	private int head, size;
+	private long first = -1;
+	private long usedBytes;
+	private long lastKey = -1; //Newest generation recorded as a keyframe, -1 if nothing was recorded
+	private long sinceKey; //Bytes of the deltas recorded after lastKey
+
+	private long cursor = -1; //Generation the board of the game is at, between first and first + size - 1
+	private final long[][] current; //Board at the cursor
+	private final long[][] base; //Scratch board that new deltas are taken against
+	private final boolean[] touched; //Rows of current changed by the last seek
+	private final long[] row;
+	private long[] encoded = new long[64]; //Scratch for the stream being encoded
+
+	public GenerationHistory(int width, int height, long budgetBytes) {
+		/*
+		 * Constructs an empty history for a width x height board that stores up to budgetBytes of generations
+		 * If the budget is not positive, IllegalArgumentException is thrown
+		 *
+		 * */
+
+		if (budgetBytes <= 0) {
+			throw new IllegalArgumentException("History budget must be positive: " + budgetBytes);
+		}
+		this.height = height;
+		this.words = (width + 63) >>> 6;
+		this.budget = budgetBytes;
+		this.deltas = new long[16][];
+		this.keys = new long[16][];
+		this.current = new long[height][words];
+		this.base = new long[height][words];
+		this.touched = new boolean[height];
+		this.row = new long[words];
+	}
+
+	public long getFirstGen() {
+		/*
+		 * Returns the oldest recorded generation, -1 if nothing was recorded
+		 *
+		 * */
+
+		return this.first;
+	}
+
+	public long getLastGen() {
+		/*
+		 * Returns the newest recorded generation, -1 if nothing was recorded
+		 *
+		 * */
+
+		return size == 0 ? -1 : first + size - 1;
+	}
+
+	public long getUsedBytes() {
+		/*
+		 * Returns the estimated memory used by the recorded generations
+		 *
+		 * */
+
+		return this.usedBytes;
+	}
+
+	public void record(GameOfLife game, boolean edited) {
+		/*
+		 * Records the board of game as its current generation
+		 *
+		 * The generation after the cursor is appended, dropping any generations recorded after the cursor,
+		 * which no longer follow once the game went its own way from there
+		 * If the game is still at the cursor and edited is true, its board replaces the one recorded for the cursor
+		 * Any other generation starts the history over, for example after clear or a jump of advance
+		 *
+		 * */
+
+		long gen = game.getGen();
+		if (size > 0 && gen == cursor && !edited) {
+			return;
+		}
+		if (size > 0 && gen == cursor && cursor > first) {
+			//The edited board becomes the generation after the one before the cursor
+			for (int y = 0; y < height; y++) {
+				System.arraycopy(current[y], 0, base[y], 0, words);
+			}
+			xorInto(deltas[index(cursor - first)], base);
+			truncate(cursor - 1);
+			cursor--;
+			append(game, base);
+		}
+		else if (size > 0 && gen == cursor + 1) {
+			truncate(cursor);
+			append(game, current);
+		}
+		else {
+			truncate(-1);
+			size = 0;
+			head = 0;
+			first = gen;
+			usedBytes = 0;
+			cursor = gen - 1;
+			for (long[] line : current) {
+				Arrays.fill(line, 0L);
+			}
+			append(game, current);
+		}
+		trim();
+	}
+
+	public void seek(GameOfLife game, long gen) {
+		/*
+		 * Restores the board of game to the recorded generation gen, rewriting only the rows that differ, and sets its generation
+		 * The board of game must be the one recorded for the cursor
+		 * If gen was not recorded, IllegalArgumentException is thrown
+		 *
+		 * */
+
+		if (size == 0 || gen < first || gen > getLastGen()) {
+			throw new IllegalArgumentException("Generation " + gen + " is not recorded, the history holds " + first + " to " + getLastGen());
+		}
+		Arrays.fill(touched, false);
+
+		//Cost of walking the deltas from the cursor, against starting over from the nearest keyframe
+		long key = gen;
+		while (keys[index(key - first)] == null) {
+			key--;
+		}
+		long walk = 0, jump = bytes(keys[index(key - first)]);
+		for (long g = Math.min(gen, cursor) + 1; g <= Math.max(gen, cursor); g++) {
+			walk += bytes(deltas[index(g - first)]);
+		}
+		for (long g = key + 1; g <= gen; g++) {
+			jump += bytes(deltas[index(g - first)]);
+		}
+
+		if (jump < walk) {
+			for (long[] line : current) {
+				Arrays.fill(line, 0L);
+			}
+			Arrays.fill(touched, true);
+			xorInto(keys[index(key - first)], current);
+			cursor = key;
+		}
+		for (; cursor > gen; cursor--) {
+			xorInto(deltas[index(cursor - first)], current);
+		}
+		for (; cursor < gen; cursor++) {
+			xorInto(deltas[index(cursor + 1 - first)], current);
+		}
+
+		for (int y = 0; y < height; y++) {
+			if (touched[y]) {
+				game.setRow(y, current[y]);
+			}
+		}
+		game.setGen(gen);
+	}
+
+	private void append(GameOfLife game, long[][] from) {
+		/*
+		 * Appends the board of game as generation cursor + 1, as a delta against the board from (current or base),
+		 * and as a keyframe too if it starts the history or the deltas since the last keyframe outgrew it
+		 * Leaves the board in current and moves the cursor to it
+		 *
+		 * */
+
+		for (int y = 0; y < height; y++) {
+			game.getRow(y, row);
+			for (int k = 0; k < words; k++) {
+				base[y][k] = row[k] ^ from[y][k];
+				current[y][k] = row[k];
+			}
+		}
+		long[] delta = size == 0 ? null : encode(base);
+		long[] key = size == 0 || sinceKey + bytes(delta) > bytes(keys[index(lastKey - first)]) ? encode(current) : null;
+		if (key != null) {
+			lastKey = first + size;
+			sinceKey = 0;
+		}
+		else {
+			sinceKey += bytes(delta);
+		}
+
+		if (size == deltas.length) {
+			long[][] grownDeltas = new long[2 * size][], grownKeys = new long[2 * size][];
+			for (int i = 0; i < size; i++) {
+				grownDeltas[i] = deltas[index(i)];
+				grownKeys[i] = keys[index(i)];
+			}
+			deltas = grownDeltas;
+			keys = grownKeys;
+			head = 0;
+		}
+		deltas[index(size)] = delta;
+		keys[index(size)] = key;
+		size++;
+		usedBytes += ENTRY_BYTES + bytes(delta) + bytes(key);
+		cursor++;
+	}
+
+	private void truncate(long last) {
+		/*
+		 * Drops the generations recorded after last, walking back to the keyframe before them if the newest one is dropped
+		 *
+		 * */
+
+		while (size > 0 && first + size - 1 > last) {
+			size--;
+			sinceKey -= bytes(deltas[index(size)]);
+			usedBytes -= ENTRY_BYTES + bytes(deltas[index(size)]) + bytes(keys[index(size)]);
+			deltas[index(size)] = null;
+			keys[index(size)] = null;
+		}
+		if (lastKey > first + size - 1) {
+			lastKey = -1;
+			sinceKey = 0;
+			for (int i = size - 1; i >= 0 && lastKey < 0; i--) {
+				if (keys[index(i)] != null) {
+					lastKey = first + i;
+				}
+				else {
+					sinceKey += bytes(deltas[index(i)]);
+				}
+			}
+		}
+	}
+
+	private void trim() {
+		/*
+		 * Drops the oldest keyframe and the deltas after it while the budget is exceeded, keeping the newest keyframe
+		 *
+		 * */
+
+		while (usedBytes > budget) {
+			int next = 1;
+			while (next < size && keys[index(next)] == null) {
+				next++;
+			}
+			if (next >= size) {
+				return;
+			}
+			for (int i = 0; i < next; i++) {
+				usedBytes -= ENTRY_BYTES + bytes(deltas[index(0)]) + bytes(keys[index(0)]);
+				deltas[index(0)] = null;
+				keys[index(0)] = null;
+				head = (head + 1) % deltas.length;
+				size--;
+				first++;
+			}
+			//The oldest generation is never stepped back from, so its delta is not needed
+			usedBytes -= bytes(deltas[index(0)]);
+			deltas[index(0)] = null;
+		}
+	}
+
+	private long[] encode(long[][] rows) {
+		/*
+		 * Returns the run-length encoding of rows
+		 *
+		 * */
+
+		int length = 0;
+		long zeros = 0;
+		int header = -1;
+		for (long[] line : rows) {
+			for (long word : line) {
+				if (word == 0) {
+					zeros++;
+					header = -1;
+					continue;
+				}
+				if (length + 2 > encoded.length) {
+					encoded = Arrays.copyOf(encoded, 2 * encoded.length);
+				}
+				if (header < 0) {
+					header = length++;
+					encoded[header] = zeros << 32;
+					zeros = 0;
+				}
+				encoded[header]++;
+				encoded[length++] = word;
+			}
+		}
+		return Arrays.copyOf(encoded, length);
+	}
+
+	private void xorInto(long[] stream, long[][] rows) {
+		/*
+		 * XORs an encoded stream into rows, marking the rows it changes as touched
+		 *
+		 * */
+
+		long position = 0;
+		int i = 0;
+		while (i < stream.length) {
+			long header = stream[i++];
+			position += header >>> 32;
+			int literals = (int) header;
+			for (int j = 0; j < literals; j++, position++) {
+				int y = (int) (position / words);
+				rows[y][(int) (position % words)] ^= stream[i++];
+				touched[y] = true;
+			}
+		}
+	}
+
+	private int index(long i) {
+		/*
+		 * Returns the ring buffer index of the i-th recorded generation
+		 *
+		 * */
+
+		return (int) ((head + i) % deltas.length);
+	}
+
+	private static long bytes(long[] stream) {
+		/*
+		 * Returns the estimated memory used by an encoded stream
+		 *
+		 * */
+
+		return stream == null ? 0 : ARRAY_BYTES + 8L * stream.length;
+	}
+}
@@ -0,0 +1,741 @@
+import java.util.Arrays;
+
+public class HashLifeEngine implements LifeEngine {
+	/*
+	 * HashLife engine (Gosper's algorithm) on an unbounded plane
+	 *
+	 * The universe is a quadtree whose nodes are hash-consed, so every distinct square of cells exists once.
+	 * Each node memoizes the center half of itself advanced by 2^j generations, which lets repeated
+	 * structure (still lifes, oscillators, glider streams) be skipped over exponentially fast
+	 *
+	 * Width and height only describe the window the board is displayed in, cells outside of it keep living
+	 * Nodes are kept in a hash table that is garbage collected once it grows past maxNodes, keeping only the nodes still
+	 * reachable from the current generation and their memoized results
+	 * The cap is checked inside the recursion too, a step that fills the table is unwound, collected and retried,
+	 * reusing every result that survived the collection
+	 *
+	 * Nodes of 2 x 2 and 4 x 4 cells carry their cells as bits and are looked up in arrays by them instead of hashing,
+	 * they are few enough to be kept for good, and nodes up to 16 x 16 are stepped from those bits without building any node in between
+	 *
+	 * */
+
+	public static final int DEFAULT_MAX_NODES = 1 << 20;
+	private static final int MAX_LEVEL = 62; //Largest universe whose coordinates still fit in a long
+
+	private static final class TableFull extends RuntimeException {
+		/*
+		 * Unwinds a step that filled the hash table, thrown without a stack trace since it is always caught in step
+		 *
+		 * */
+
+		private static final long serialVersionUID = 1L;
+
+		static final TableFull INSTANCE = new TableFull();
+
+		private TableFull() {
+			super(null, null, false, false);
+		}
+	}
+
+	private static final class Node {
+		/*
+		 * Square of 2^level x 2^level cells made of four squares of half the size
+		 * Level 0 nodes are single cells and have no children
+		 *
+		 * */
+
+		final Node nw, ne, sw, se;
+		final int level;
+		final long population;
+		final int id; //Identifies this node in the hashes of its parents
+		final int bits; //Cells of a level 1 or 2 node, cell (x, y) at bit 2 * y + x or 4 * y + x, 0 for other levels
+		Node next; //Next node in the same hash table bucket
+		Node result; //Center of this node advanced by 2^resultStep generations
+		int resultStep = -1;
+		int mark; //Last garbage collection this node survived
+
+		Node(int id, boolean alive) {
+			this.nw = this.ne = this.sw = this.se = null;
+			this.level = 0;
+			this.population = alive ? 1 : 0;
+			this.id = id;
+			this.bits = alive ? 1 : 0;
+		}
+
+		Node(int id, Node nw, Node ne, Node sw, Node se) {
+			this.nw = nw;
+			this.ne = ne;
+			this.sw = sw;
+			this.se = se;
+			this.level = nw.level + 1;
+			this.population = nw.population + ne.population + sw.population + se.population;
+			this.id = id;
+			if (level == 1) {
+				this.bits = nw.bits | ne.bits << 1 | sw.bits << 2 | se.bits << 3;
+			}
+			else if (level == 2) {
+				this.bits = spread(nw.bits) | spread(ne.bits) << 2 | spread(sw.bits) << 8 | spread(se.bits) << 10;
+			}
+			else {
+				this.bits = 0;
+			}
+		}
+
+		private static int spread(int bits) {
+			/*
+			 * Moves the second row of a 2 x 2 square of bits down to the second row of a 4 x 4 one
+			 *
+			 * */
+
+			return (bits & 3) | (bits & 12) << 2;
+		}
+	}
+
+	private static final Node DEAD_LEAF = new Node(0, false);
+	private static final Node ALIVE_LEAF = new Node(1, true);
+
+	private final int width, height;
+	private final int maxNodes;
+	private Node[] table = new Node[1 << 10];
+	private int nodeCount;
+	private int nextId = 2;
+	private int collections; //Number of garbage collections so far, used to mark surviving nodes
+	private boolean capped; //True while a step may be unwound once the table holds more than maxNodes
+	private Node[] empties = new Node[MAX_LEVEL + 1]; //Empty node of every level, created on demand
+	private final Node[] squares2 = new Node[1 << 4]; //Every 2 x 2 node built so far, indexed by its bits, never collected
+	private final Node[] squares4 = new Node[1 << 16]; //Every 4 x 4 node built so far, indexed by its bits, never collected
+	private final int[] cells = new int[16], nextCells = new int[16]; //Rows of bits the smallest nodes are stepped in
+	private Node root;
+	private LifeRule rule = LifeRule.CONWAY;
+
+	public HashLifeEngine(int width, int height) {
+		/*
+		 * Constructs an empty universe shown through a window of the specified width and height
+		 *
+		 * */
+
+		this(width, height, DEFAULT_MAX_NODES);
+	}
+
+	public HashLifeEngine(int width, int height, int maxNodes) {
+		/*
+		 * Constructs an empty universe that garbage collects its nodes once there are more than maxNodes
+		 *
+		 * */
+
+		if (width < 0 || height < 0 || maxNodes <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.width = width;
+		this.height = height;
+		this.maxNodes = maxNodes;
+		clear();
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the window the universe is displayed in
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the window the universe is displayed in
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public boolean isBounded() {
+		/*
+		 * The universe is unbounded, cells can be read and set at any coordinate
+		 *
+		 * */
+
+		return false;
+	}
+
+	public boolean isAlive(int x, int y) {
+		/*
+		 * Returns true if the cell at (x, y) is alive, walking down the tree from the root
+		 *
+		 * */
+
+		long half = 1L << (root.level - 1);
+		if (x < -half || x >= half || y < -half || y >= half) {
+			return false;
+		}
+		Node node = root;
+		long nx = x + half, ny = y + half; //Position relative to the top left corner of node
+		while (node.level > 0) {
+			long childSize = 1L << (node.level - 1);
+			boolean east = nx >= childSize, south = ny >= childSize;
+			node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+			if (east) {
+				nx -= childSize;
+			}
+			if (south) {
+				ny -= childSize;
+			}
+		}
+		return node == ALIVE_LEAF;
+	}
+
+	public void setAlive(int x, int y, boolean alive) {
+		/*
+		 * Sets the cell at (x, y), growing the universe first if it does not reach that far
+		 *
+		 * */
+
+		while (!contains(root, x, y)) {
+			root = expand(root);
+		}
+		long half = 1L << (root.level - 1);
+		root = set(root, x + half, y + half, alive);
+	}
+
+	public void clear() {
+		/*
+		 * Empties the universe and drops every node that was built
+		 *
+		 * */
+
+		table = new Node[1 << 10];
+		nodeCount = 0;
+		empties = new Node[MAX_LEVEL + 1];
+		empties[0] = DEAD_LEAF;
+		root = empty(3);
+	}
+
+	public int countLivingCells() {
+		/*
+		 * Returns the number of living cells in the whole universe, capped at Integer.MAX_VALUE
+		 *
+		 * */
+
+		return (int) Math.min(root.population, Integer.MAX_VALUE);
+	}
+
+	public long getPopulation() {
+		/*
+		 * Returns the number of living cells in the whole universe
+		 *
+		 * */
+
+		return root.population;
+	}
+
+	public void countBlocks(int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Counts the living cells of blocks of 2^level x 2^level cells anywhere on the plane, laid out like BoardSource.countBlocks
+		 * Walks down the tree only where it is populated and overlaps the blocks, a node inside a single block adds its population
+		 *
+		 * */
+
+		Arrays.fill(counts, 0, columns * rows, 0);
+		long half = 1L << (root.level - 1);
+		countBlocks(root, -half, -half, x, y, level, columns, rows, counts);
+	}
+
+	private static void countBlocks(Node node, long nx, long ny, int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Adds the population of node, with its top left corner at (nx, ny), to the blocks of countBlocks it overlaps
+		 *
+		 * */
+
+		long size = 1L << node.level;
+		if (node.population == 0 || nx >= x + ((long) columns << level) || ny >= y + ((long) rows << level) || nx + size <= x || ny + size <= y) {
+			return;
+		}
+		long bx = (nx - x) >> level, by = (ny - y) >> level;
+		if (bx == (nx + size - 1 - x) >> level && by == (ny + size - 1 - y) >> level) {
+			counts[(int) by * columns + (int) bx] += (int) node.population;
+			return;
+		}
+		long half = size >> 1;
+		countBlocks(node.nw, nx, ny, x, y, level, columns, rows, counts);
+		countBlocks(node.ne, nx + half, ny, x, y, level, columns, rows, counts);
+		countBlocks(node.sw, nx, ny + half, x, y, level, columns, rows, counts);
+		countBlocks(node.se, nx + half, ny + half, x, y, level, columns, rows, counts);
+	}
+
+	public long getHash() {
+		/*
+		 * Returns the BoardHash of the whole universe, not only of the window, so a pattern that leaves the window still changes it
+		 * Empty nodes are skipped, so this costs as much as the live area
+		 *
+		 * */
+
+		long half = 1L << (root.level - 1);
+		return cellHash(root, -half, -half);
+	}
+
+	private static long cellHash(Node node, long x, long y) {
+		/*
+		 * Returns the XOR of the BoardHash keys of the living cells of node, with its top left corner at (x, y)
+		 * Coordinates past the range of an int wrap around, which only makes such cells share keys with others
+		 *
+		 * */
+
+		if (node.population == 0) {
+			return 0;
+		}
+		if (node.level == 2) {
+			long hash = 0;
+			for (int i = 0; i < 4; i++) {
+				hash ^= BoardHash.bitsKey((int) x, (int) (y + i), (node.bits >>> (4 * i)) & 15);
+			}
+			return hash;
+		}
+		long half = 1L << (node.level - 1);
+		return cellHash(node.nw, x, y) ^ cellHash(node.ne, x + half, y) ^ cellHash(node.sw, x, y + half) ^ cellHash(node.se, x + half, y + half);
+	}
+
+	public int getNodeCount() {
+		/*
+		 * Returns the number of distinct nodes of 8 x 8 cells and up currently kept in the hash table
+		 *
+		 * */
+
+		return this.nodeCount;
+	}
+
+	public void nextGen() {
+		/*
+		 * Advances the universe by one generation
+		 *
+		 * */
+
+		step(0);
+	}
+
+	public boolean skipsAhead() {
+		/*
+		 * advance takes one power of two step per set bit of the number of generations
+		 *
+		 * */
+
+		return true;
+	}
+
+	public void advance(long generations) {
+		/*
+		 * Advances the universe by the given number of generations, one power of two step per set bit
+		 *
+		 * */
+
+		for (int j = 0; j < 63; j++) {
+			if ((generations & (1L << j)) != 0) {
+				step(j);
+			}
+		}
+	}
+
+	public void setStepper(ParallelStepper stepper) {
+		/*
+		 * The tree is stepped recursively on one thread, so the stepper is not used
+		 *
+		 * */
+	}
+
+	public void setRule(LifeRule rule) {
+		/*
+		 * Sets the rule leaves are stepped with and drops every memoized result, which were computed under the old rule
+		 * Throws IllegalArgumentException for B0 rules, which would fill the whole plane
+		 *
+		 * */
+
+		if (rule.birthOnZero()) {
+			throw new IllegalArgumentException("B0 rules can not run on an unbounded plane: " + rule);
+		}
+		this.rule = rule;
+		collect(false);
+	}
+
+	private void step(int j) {
+		/*
+		 * Advances the universe by 2^j generations
+		 *
+		 * */
+
+		if (nodeCount > maxNodes) {
+			collect(true);
+		}
+
+		//Grows the universe until every living cell is in its central quarter,
+		//so nothing can reach outside the center half within 2^j generations
+		while (root.level < j + 3 || !inCenter(root)) {
+			if (root.level >= MAX_LEVEL) {
+				throw new IllegalStateException("Pattern has grown too large for the universe");
+			}
+			root = expand(root);
+		}
+
+		//A step that fills the table is collected and retried once with the results that survived,
+		//if it fills the table again the results go too and the step runs to the end whatever it takes
+		capped = true;
+		try {
+			for (int attempt = 0; ; attempt++) {
+				try {
+					root = successor(root, j);
+					return;
+				}
+				catch (TableFull full) {
+					collect(attempt == 0);
+					capped = attempt == 0;
+				}
+			}
+		}
+		finally {
+			capped = false;
+		}
+	}
+
+	private Node successor(Node node, int j) {
+		/*
+		 * Returns the center half of node advanced by 2^j generations, where j <= node.level - 2 and node.level >= 3
+		 *
+		 * */
+
+		if (node.resultStep == j) {
+			return node.result;
+		}
+		if (capped && nodeCount > maxNodes) {
+			throw TableFull.INSTANCE;
+		}
+
+		Node result;
+		if (node.population == 0) {
+			result = empty(node.level - 1);
+		}
+		else if (node.level <= 4) {
+			result = stepCells(node, 1 << j);
+		}
+		else {
+			//The nine overlapping squares of half the size that cover the node
+			Node n00 = node.nw;
+			Node n01 = join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+			Node n02 = node.ne;
+			Node n10 = join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+			Node n11 = join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+			Node n12 = join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+			Node n20 = node.sw;
+			Node n21 = join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+			Node n22 = node.se;
+
+			//At full speed both halves of the step advance, otherwise only the second one does
+			boolean fullSpeed = j == node.level - 2;
+			int half = fullSpeed ? j - 1 : j;
+			Node r00 = fullSpeed ? successor(n00, half) : center(n00);
+			Node r01 = fullSpeed ? successor(n01, half) : center(n01);
+			Node r02 = fullSpeed ? successor(n02, half) : center(n02);
+			Node r10 = fullSpeed ? successor(n10, half) : center(n10);
+			Node r11 = fullSpeed ? successor(n11, half) : center(n11);
+			Node r12 = fullSpeed ? successor(n12, half) : center(n12);
+			Node r20 = fullSpeed ? successor(n20, half) : center(n20);
+			Node r21 = fullSpeed ? successor(n21, half) : center(n21);
+			Node r22 = fullSpeed ? successor(n22, half) : center(n22);
+
+			result = join(
+					successor(join(r00, r01, r10, r11), half),
+					successor(join(r01, r02, r11, r12), half),
+					successor(join(r10, r11, r20, r21), half),
+					successor(join(r11, r12, r21, r22), half));
+		}
+
+		node.result = result;
+		node.resultStep = j;
+		return result;
+	}
+
+	private Node stepCells(Node node, int generations) {
+		/*
+		 * Computes the center half of an 8 x 8 or 16 x 16 node the given number of generations ahead, at most a quarter of its side,
+		 * cell by cell from the bits of its 4 x 4 descendants, so no node is built between the node and its result
+		 *
+		 * */
+
+		//Unpacks the cells into rows of bits, cell (x, y) at bit x of cells[y]
+		int size = 1 << node.level;
+		int[] cells = this.cells, next = this.nextCells;
+		unpack(node, 0, 0, cells);
+
+		//Each generation only the cells the rest of the step still depends on are computed, down to the center half at the end
+		for (int g = generations - 1; g >= 0; g--) {
+			int from = size / 4 - g, to = 3 * size / 4 + g;
+			for (int y = from; y < to; y++) {
+				int row = 0;
+				for (int x = from; x < to; x++) {
+					int neighborhood = (cells[y - 1] >>> (x - 1)) & 7 | ((cells[y] >>> (x - 1)) & 7) << 3 | ((cells[y + 1] >>> (x - 1)) & 7) << 6;
+					if (rule.nextFromNeighborhood(neighborhood)) {
+						row |= 1 << x;
+					}
+				}
+				next[y] = row;
+			}
+			int[] temp = cells;
+			cells = next;
+			next = temp;
+		}
+
+		//Packs the center half back into 4 x 4 nodes
+		int quarter = size / 4;
+		if (node.level == 3) {
+			return square4(quadrant(cells, quarter, quarter));
+		}
+		return join(square4(quadrant(cells, 4, 4)), square4(quadrant(cells, 8, 4)), square4(quadrant(cells, 4, 8)), square4(quadrant(cells, 8, 8)));
+	}
+
+	private static void unpack(Node node, int x, int y, int[] cells) {
+		/*
+		 * Writes the cells of a node of level 2 or more into rows of bits, with its top left corner at (x, y)
+		 *
+		 * */
+
+		if (node.level == 2) {
+			for (int i = 0; i < 4; i++) {
+				cells[y + i] = cells[y + i] & ~(15 << x) | ((node.bits >>> (4 * i)) & 15) << x;
+			}
+			return;
+		}
+		int half = 1 << (node.level - 1);
+		unpack(node.nw, x, y, cells);
+		unpack(node.ne, x + half, y, cells);
+		unpack(node.sw, x, y + half, cells);
+		unpack(node.se, x + half, y + half, cells);
+	}
+
+	private static int quadrant(int[] cells, int x, int y) {
+		/*
+		 * Returns the 4 x 4 cells with their top left corner at (x, y) in rows of bits, cell (x, y) at bit 0
+		 *
+		 * */
+
+		int bits = 0;
+		for (int i = 0; i < 4; i++) {
+			bits |= ((cells[y + i] >>> x) & 15) << (4 * i);
+		}
+		return bits;
+	}
+
+	private Node square4(int bits) {
+		/*
+		 * Returns the 4 x 4 node with the given cells, cell (x, y) at bit 4 * y + x
+		 *
+		 * */
+
+		Node node = squares4[bits];
+		if (node == null) {
+			node = join(square2(bits & 3 | (bits >>> 2) & 12), square2((bits >>> 2) & 3 | (bits >>> 4) & 12),
+					square2((bits >>> 8) & 3 | (bits >>> 10) & 12), square2((bits >>> 10) & 3 | (bits >>> 12) & 12));
+		}
+		return node;
+	}
+
+	private Node square2(int bits) {
+		/*
+		 * Returns the 2 x 2 node with the given cells, cell (x, y) at bit 2 * y + x
+		 *
+		 * */
+
+		return join(leaf(bits & 1), leaf(bits & 2), leaf(bits & 4), leaf(bits & 8));
+	}
+
+	private static Node leaf(int bit) {
+		return bit != 0 ? ALIVE_LEAF : DEAD_LEAF;
+	}
+
+	private Node center(Node node) {
+		/*
+		 * Returns the square of half the size at the center of node
+		 *
+		 * */
+
+		return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+	}
+
+	private static boolean inCenter(Node node) {
+		/*
+		 * Returns true if every living cell of node is in its central quarter (node.level >= 3)
+		 *
+		 * */
+
+		return node.population == node.nw.se.se.population + node.ne.sw.sw.population
+				+ node.sw.ne.ne.population + node.se.nw.nw.population;
+	}
+
+	private Node expand(Node node) {
+		/*
+		 * Returns a node twice the size of the given one, with it in the center and empty space around it
+		 *
+		 * */
+
+		Node e = empty(node.level - 1);
+		return join(join(e, e, e, node.nw), join(e, e, node.ne, e), join(e, node.sw, e, e), join(node.se, e, e, e));
+	}
+
+	private static boolean contains(Node root, long x, long y) {
+		/*
+		 * Returns true if (x, y) lies inside the root node, which is centered on (0, 0)
+		 *
+		 * */
+
+		long half = 1L << (root.level - 1);
+		return x >= -half && x < half && y >= -half && y < half;
+	}
+
+	private Node set(Node node, long x, long y, boolean alive) {
+		/*
+		 * Returns a copy of node with the cell at (x, y), relative to its top left corner, set to the given state
+		 *
+		 * */
+
+		if (node.level == 0) {
+			return alive ? ALIVE_LEAF : DEAD_LEAF;
+		}
+		long childSize = 1L << (node.level - 1);
+		boolean east = x >= childSize, south = y >= childSize;
+		long cx = east ? x - childSize : x, cy = south ? y - childSize : y;
+		if (south) {
+			return east ? join(node.nw, node.ne, node.sw, set(node.se, cx, cy, alive))
+					: join(node.nw, node.ne, set(node.sw, cx, cy, alive), node.se);
+		}
+		return east ? join(node.nw, set(node.ne, cx, cy, alive), node.sw, node.se)
+				: join(set(node.nw, cx, cy, alive), node.ne, node.sw, node.se);
+	}
+
+	private Node empty(int level) {
+		/*
+		 * Returns the empty node of the given level
+		 *
+		 * */
+
+		if (empties[level] == null) {
+			Node e = empty(level - 1);
+			empties[level] = join(e, e, e, e);
+		}
+		return empties[level];
+	}
+
+	private Node join(Node nw, Node ne, Node sw, Node se) {
+		/*
+		 * Returns the unique node with the given children, creating it if it does not exist yet
+		 *
+		 * */
+
+		if (nw.level <= 1) { //Small nodes are looked up by their cells
+			Node[] squares = nw.level == 0 ? squares2 : squares4;
+			int bits = nw.level == 0 ? nw.bits | ne.bits << 1 | sw.bits << 2 | se.bits << 3
+					: Node.spread(nw.bits) | Node.spread(ne.bits) << 2 | Node.spread(sw.bits) << 8 | Node.spread(se.bits) << 10;
+			if (squares[bits] == null) {
+				squares[bits] = new Node(nextId++, nw, ne, sw, se);
+			}
+			return squares[bits];
+		}
+
+		int hash = hash(nw, ne, sw, se);
+		int bucket = hash & (table.length - 1);
+		for (Node node = table[bucket]; node != null; node = node.next) {
+			if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+				return node;
+			}
+		}
+		Node node = new Node(nextId++, nw, ne, sw, se);
+		insert(node, hash);
+		return node;
+	}
+
+	private void insert(Node node, int hash) {
+		/*
+		 * Adds node to the hash table, doubling the table when it gets too full
+		 *
+		 * */
+
+		if (nodeCount >= table.length - (table.length >>> 2)) {
+			Node[] old = table;
+			table = new Node[old.length << 1];
+			for (Node bucket : old) {
+				while (bucket != null) {
+					Node next = bucket.next;
+					int index = hash(bucket.nw, bucket.ne, bucket.sw, bucket.se) & (table.length - 1);
+					bucket.next = table[index];
+					table[index] = bucket;
+					bucket = next;
+				}
+			}
+		}
+		int index = hash & (table.length - 1);
+		node.next = table[index];
+		table[index] = node;
+		nodeCount++;
+	}
+
+	private static int hash(Node nw, Node ne, Node sw, Node se) {
+		/*
+		 * Hashes a node by the ids of its children
+		 *
+		 * */
+
+		int h = nw.id;
+		h = h * 0x9E3779B1 + ne.id;
+		h = h * 0x9E3779B1 + sw.id;
+		h = h * 0x9E3779B1 + se.id;
+		return h ^ (h >>> 16);
+	}
+
+	private void collect(boolean keepResults) {
+		/*
+		 * Rebuilds the hash table from the nodes reachable from the root and the empty nodes
+		 * With keepResults the memoized results of those nodes are kept too, along with the nodes they point at,
+		 * unless that keeps more than half of maxNodes, then they are dropped so the next steps have room
+		 * Without it every result is dropped, for instance because they were computed under another rule
+		 *
+		 * */
+
+		rebuild(keepResults);
+		if (keepResults && nodeCount > maxNodes >>> 1) {
+			rebuild(false);
+		}
+	}
+
+	private void rebuild(boolean keepResults) {
+		/*
+		 * Empties the hash table and puts the nodes collect keeps back into it
+		 *
+		 * */
+
+		collections++;
+		table = new Node[Integer.highestOneBit(Math.max(maxNodes, 1 << 10))];
+		nodeCount = 0;
+		for (Node e : empties) {
+			keep(e, keepResults);
+		}
+		keep(root, keepResults);
+	}
+
+	private void keep(Node node, boolean keepResults) {
+		/*
+		 * Puts node and everything below it back into the hash table, once, with its result if keepResults
+		 *
+		 * */
+
+		if (node == null || node.level <= 2 || node.mark == collections) { //Small nodes are never dropped
+			return;
+		}
+		node.mark = collections;
+		if (!keepResults) {
+			node.result = null;
+			node.resultStep = -1;
+		}
+		insert(node, hash(node.nw, node.ne, node.sw, node.se));
+		keep(node.nw, keepResults);
+		keep(node.ne, keepResults);
+		keep(node.sw, keepResults);
+		keep(node.se, keepResults);
+		keep(node.result, keepResults);
+	}
+}
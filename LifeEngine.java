@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+public interface LifeEngine extends BoardStorage {
+	/*
+	 * Storage and stepping strategy behind a GameOfLife
+	 * Implementations keep their own representation of the board and compute
+	 * the next generation with it, GameOfLife only forwards calls to them
+	 * Reading and writing cells is inherited from BoardStorage, so every engine can also serve as plain storage
+	 *
+	 * */
+
+	default int[] getLiveBounds() {
+		/*
+		 * Returns {minX, minY, maxX, maxY} of the living cells (in the window, for unbounded engines), or null if there are none
+		 * Scans the board one bit-packed row at a time, engines that know where their cells are override this
+		 *
+		 * */
+
+		return BoardSource.liveBounds(getWidth(), getHeight(), (words, y) -> getRow(y, words));
+	}
+
+	default long getHash() {
+		/*
+		 * Returns the BoardHash of the board, computed from its rows
+		 * Unbounded engines override this to hash their whole plane instead of only the window
+		 * Engines that know which cells flip override this to keep the hash up to date instead
+		 *
+		 * */
+
+		long hash = 0;
+		long[] words = new long[(getWidth() + 63) >>> 6];
+		for (int y = 0; y < getHeight(); y++) {
+			getRow(y, words);
+			for (int k = 0; k < words.length; k++) {
+				hash ^= BoardHash.bitsKey(64 * k, y, words[k]);
+			}
+		}
+		return hash;
+	}
+
+	void nextGen();
+
+	default void advance(long generations) {
+		/*
+		 * Advances the board by the given number of generations
+		 * Engines that can skip ahead faster than one generation at a time override this
+		 *
+		 * */
+
+		for (long i = 0; i < generations; i++) {
+			nextGen();
+		}
+	}
+
+	default boolean skipsAhead() {
+		/*
+		 * Returns true if advance jumps ahead faster than stepping one generation at a time
+		 *
+		 * */
+
+		return false;
+	}
+
+	default long getCellsEvaluated() {
+		/*
+		 * Returns the number of cells the last nextGen or advance evaluated, for the metrics
+		 * The whole board by default, engines that skip cells override this
+		 *
+		 * */
+
+		return (long) getWidth() * getHeight();
+	}
+
+	default boolean isBounded() {
+		/*
+		 * Returns true if cells outside of width x height do not exist (and count as DEAD),
+		 * false if the board is an unbounded plane that only uses width x height as its window
+		 *
+		 * */
+
+		return true;
+	}
+
+	default void countBlocks(int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Counts the living cells of blocks of 2^level x 2^level cells into counts, laid out like BoardSource.countBlocks
+		 * Only the cells of width x height are looked at, one at a time, unbounded engines override this to count anywhere
+		 *
+		 * */
+
+		Arrays.fill(counts, 0, columns * rows, 0);
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < columns; c++) {
+				long left = x + ((long) c << level), top = y + ((long) r << level);
+				for (long cy = Math.max(top, 0); cy < Math.min(top + (1L << level), getHeight()); cy++) {
+					for (long cx = Math.max(left, 0); cx < Math.min(left + (1L << level), getWidth()); cx++) {
+						if (isAlive((int) cx, (int) cy)) {
+							counts[r * columns + c]++;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	default boolean setChangeSet(ChangeSet changes) {
+		/*
+		 * Adds the cells that flip in each nextGen or advance to changes from now on, null stops
+		 * Returns false if the engine does not track changes, callers then have to compare the rows themselves
+		 * Edits are not added, the caller knows which cells it edited
+		 *
+		 * */
+
+		return changes == null;
+	}
+
+	default void setToroidal(boolean toroidal) {
+		/*
+		 * Switches between a bounded board and a toroidal one, where the cells past an edge are the cells on the opposite edge
+		 * Throws IllegalArgumentException if toroidal and the engine only supports bounded boards
+		 *
+		 * */
+
+		if (toroidal) {
+			throw new IllegalArgumentException("This engine does not support toroidal boards");
+		}
+	}
+
+	void setStepper(ParallelStepper stepper); //Runs nextGen on the given stepper, or sequentially if null
+
+	void setRule(LifeRule rule); //Steps with the given rule from the next generation on, IllegalArgumentException if the engine can not run it
+}
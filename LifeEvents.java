@@ -0,0 +1,109 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+public final class LifeEvents {
+	/*
+	 * JDK Flight Recorder events of the simulation, committed next to the Metrics they mirror
+	 * They are disabled unless a recording enables them, for instance
+	 * 		java -XX:StartFlightRecording=filename=life.jfr GameOfLifeRunner ...
+	 * and an event that is not enabled is never filled in, so it costs nothing once the JIT removed its allocation
+	 *
+	 * */
+
+	private LifeEvents() {
+	}
+
+	@Name("life.Generation")
+	@Label("Generation")
+	@Category("Game of Life")
+	@Description("Steps of GameOfLife.nextGen, or of one engine jump over several generations")
+	@StackTrace(false)
+	public static final class Generation extends Event {
+		@Label("Generation")
+		long gen;
+
+		@Label("Generations")
+		@Description("Generations covered by the step, more than 1 for a HashLife jump")
+		long generations;
+
+		@Label("Engine")
+		String engine;
+
+		@Label("Cells Evaluated")
+		long cellsEvaluated;
+
+		@Label("Births")
+		long births;
+
+		@Label("Deaths")
+		long deaths;
+
+		@Label("Allocated")
+		@DataAmount
+		long allocated;
+	}
+
+	@Name("life.Paint")
+	@Label("Board Paint")
+	@Category("Game of Life")
+	@Description("Calls of BoardPanel.paintComponent")
+	@StackTrace(false)
+	public static final class Paint extends Event {
+		@Label("Clip Width")
+		int clipWidth;
+
+		@Label("Clip Height")
+		int clipHeight;
+
+		@Label("Full Render")
+		@Description("The whole view was rendered again instead of only the changed cells")
+		boolean full;
+
+		@Label("Cell Side")
+		int cellSide;
+
+		@Label("Density Level")
+		int level;
+	}
+
+	@Name("life.PatternLoad")
+	@Label("Pattern Load")
+	@Category("Game of Life")
+	@Description("Patterns read by PatternIO")
+	@StackTrace(false)
+	public static final class PatternLoad extends Event {
+		@Label("Format")
+		String format;
+
+		@Label("Cells Added")
+		long cells;
+	}
+
+	@Name("life.Snapshot")
+	@Label("Snapshot")
+	@Category("Game of Life")
+	@Description("Boards written or read by BoardSnapshot")
+	@StackTrace(false)
+	public static final class Snapshot extends Event {
+		@Label("Operation")
+		String operation;
+
+		@Label("Path")
+		String path;
+
+		@Label("Width")
+		int width;
+
+		@Label("Height")
+		int height;
+
+		@Label("Size")
+		@DataAmount
+		long size;
+	}
+}
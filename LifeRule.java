@@ -0,0 +1,204 @@
+public final class LifeRule {
+	/*
+	 * Outer-totalistic rule in B/S notation, for example "B3/S23" (Conway's Life), "B36/S23" (HighLife) or "B2/S" (Seeds)
+	 * A DEAD cell is born if its number of living neighbors is one of the B digits, a living cell survives if it is one of the S digits
+	 *
+	 * Every rule is compiled into lookup tables when it is parsed, so evaluating a cell is a single array read whatever the rule:
+	 * 		by state and neighbor count, for engines that count neighbors
+	 * 		by the full 9 cell neighborhood, for engines that have the cells packed into bits
+	 * Bit-packed engines use nextWord, which is the adder logic of BitBoard for Conway's Life and a generic bit-sliced version otherwise
+	 *
+	 * */
+
+	public static final LifeRule CONWAY = parse("B3/S23");
+
+	private final int birth, survival; //Bit n is set if n living neighbors give birth / let a cell survive
+	private final boolean conway;
+	private final boolean[] byCount = new boolean[18]; //Next state, index neighbors + 9 for living cells
+	private final boolean[] byNeighborhood = new boolean[512]; //Next state, index 3x3 cells packed row by row, bit 4 is the cell itself
+
+	private LifeRule(int birth, int survival) {
+		/*
+		 * Constructs a rule from its birth and survival masks and compiles its tables
+		 *
+		 * */
+
+		this.birth = birth;
+		this.survival = survival;
+		this.conway = birth == 1 << 3 && survival == (1 << 2 | 1 << 3);
+		for (int n = 0; n <= 8; n++) {
+			byCount[n] = (birth & (1 << n)) != 0;
+			byCount[n + 9] = (survival & (1 << n)) != 0;
+		}
+		for (int bits = 0; bits < 512; bits++) {
+			boolean alive = (bits & (1 << 4)) != 0;
+			byNeighborhood[bits] = byCount[Integer.bitCount(bits & ~(1 << 4)) + (alive ? 9 : 0)];
+		}
+	}
+
+	public static LifeRule parse(String rule) {
+		/*
+		 * Parses a rulestring: "Bxx/Syy" in either order and either case, or the older "yy/xx" (survival first)
+		 * Throws IllegalArgumentException if rule is not a valid outer-totalistic rulestring
+		 *
+		 * */
+
+		String[] parts = rule.trim().split("/", -1);
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Rule must look like B3/S23: " + rule);
+		}
+		int birth = -1, survival = -1;
+		for (int i = 0; i < 2; i++) {
+			String part = parts[i];
+			char prefix = part.isEmpty() ? ' ' : Character.toUpperCase(part.charAt(0));
+			if (prefix == 'B' && birth < 0) {
+				birth = digits(part.substring(1), rule);
+			}
+			else if (prefix == 'S' && survival < 0) {
+				survival = digits(part.substring(1), rule);
+			}
+			else if (prefix != 'B' && prefix != 'S' && birth < 0 && survival < 0 && !Character.isLetter(prefix)) {
+				//Survival/birth notation without letters
+				survival = digits(parts[0], rule);
+				birth = digits(parts[1], rule);
+				break;
+			}
+			else {
+				throw new IllegalArgumentException("Rule must look like B3/S23: " + rule);
+			}
+		}
+		return new LifeRule(birth, survival);
+	}
+
+	private static int digits(String counts, String rule) {
+		/*
+		 * Returns the mask of the neighbor counts listed in counts, each a digit from 0 to 8
+		 *
+		 * */
+
+		int mask = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			char c = counts.charAt(i);
+			if (c < '0' || c > '8') {
+				throw new IllegalArgumentException("Neighbor counts must be digits from 0 to 8: " + rule);
+			}
+			mask |= 1 << (c - '0');
+		}
+		return mask;
+	}
+
+	public boolean next(boolean alive, int neighbors) {
+		/*
+		 * Returns the next state of a cell with the given state and number of living neighbors
+		 *
+		 * */
+
+		return byCount[alive ? neighbors + 9 : neighbors];
+	}
+
+	public boolean nextFromNeighborhood(int bits) {
+		/*
+		 * Returns the next state of the center of a 3x3 neighborhood, packed row by row into 9 bits with the cell itself at bit 4
+		 *
+		 * */
+
+		return byNeighborhood[bits];
+	}
+
+	public boolean isConway() {
+		/*
+		 * Returns true if this is B3/S23
+		 *
+		 * */
+
+		return this.conway;
+	}
+
+	public boolean birthOnZero() {
+		/*
+		 * Returns true if DEAD cells without living neighbors are born (a B0 rule)
+		 * Such rules can not run on an unbounded plane and wake up every cell of a bounded board
+		 *
+		 * */
+
+		return (birth & 1) != 0;
+	}
+
+	public long nextWord(long aW, long a, long aE, long mW, long m, long mE, long bW, long b, long bE) {
+		/*
+		 * Computes the next state of 64 cells at once, in the same layout as BitBoard.nextWord
+		 *
+		 * The 8 neighbor bits are added into a full 4 bit count with bit-sliced adders,
+		 * then every count the rule uses is matched bitwise and masked by the state of the cells
+		 *
+		 * */
+
+		if (conway) {
+			return BitBoard.nextWord(aW, a, aE, mW, m, mE, bW, b, bE);
+		}
+
+		//Aligns the west and east neighbors of every cell with the cell itself
+		long aL = (a << 1) | (aW >>> 63), aR = (a >>> 1) | (aE << 63);
+		long mL = (m << 1) | (mW >>> 63), mR = (m >>> 1) | (mE << 63);
+		long bL = (b << 1) | (bW >>> 63), bR = (b >>> 1) | (bE << 63);
+
+		//Sums of the three cells above and below (2 bits each) and the two beside (2 bits)
+		long a1 = aL ^ a ^ aR, a2 = (aL & a) | (aR & (aL ^ a));
+		long b1 = bL ^ b ^ bR, b2 = (bL & b) | (bR & (bL ^ b));
+		long m1 = mL ^ mR, m2 = mL & mR;
+
+		//Count = ones + 2 * twos + 4 * fours + 8 * eights
+		long ones = a1 ^ b1 ^ m1;
+		long carry = (a1 & b1) | (m1 & (a1 ^ b1));
+		long p = a2 ^ b2, q = a2 & b2, r = m2 ^ carry, u = m2 & carry;
+		long twos = p ^ r;
+		long carry2 = p & r;
+		long fours = q ^ u ^ carry2;
+		long eights = (q & u) | (carry2 & (q ^ u));
+
+		long next = 0;
+		for (int n = 0; n <= 8; n++) {
+			if (((birth | survival) & (1 << n)) == 0) {
+				continue;
+			}
+			long count = ((n & 1) != 0 ? ones : ~ones) & ((n & 2) != 0 ? twos : ~twos)
+					& ((n & 4) != 0 ? fours : ~fours) & ((n & 8) != 0 ? eights : ~eights);
+			if ((birth & (1 << n)) != 0) {
+				next |= count & ~m;
+			}
+			if ((survival & (1 << n)) != 0) {
+				next |= count & m;
+			}
+		}
+		return next;
+	}
+
+	public boolean equals(Object other) {
+		return other instanceof LifeRule && ((LifeRule) other).birth == birth && ((LifeRule) other).survival == survival;
+	}
+
+	public int hashCode() {
+		return birth << 9 | survival;
+	}
+
+	public String toString() {
+		/*
+		 * Returns the rule in B/S notation, digits in increasing order
+		 *
+		 * */
+
+		StringBuilder result = new StringBuilder("B");
+		for (int n = 0; n <= 8; n++) {
+			if ((birth & (1 << n)) != 0) {
+				result.append(n);
+			}
+		}
+		result.append("/S");
+		for (int n = 0; n <= 8; n++) {
+			if ((survival & (1 << n)) != 0) {
+				result.append(n);
+			}
+		}
+		return result.toString();
+	}
+}
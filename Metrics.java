@@ -0,0 +1,273 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Metrics {
+	/*
+	 * Process-wide registry of the counters and histograms the simulation, the board panel and the file formats record
+	 * The same measurements are also committed as JDK Flight Recorder events, see LifeEvents
+	 *
+	 * Recording is off until setEnabled(true), or until a flight recording enables the events
+	 * Instrumented code checks isEnabled and whether its event is enabled before it reads a clock, so when both are off
+	 * measuring costs two flag reads per generation or paint
+	 * Every instrument can be recorded from any thread, the simulation thread and the event dispatch thread record at the same time
+	 *
+	 * */
+
+	public static final String NANOS = "ns"; //Unit of histograms that time something, reported in milliseconds
+	public static final String BYTES = "bytes";
+	public static final String CELLS = "cells";
+
+	private static final Map<String, Counter> counters = new LinkedHashMap<>();
+	private static final Map<String, Histogram> histograms = new LinkedHashMap<>();
+	private static volatile boolean enabled;
+
+	public static final Counter GENERATIONS = counter("generations");
+	public static final Counter CELLS_EVALUATED = counter("cells.evaluated");
+	public static final Counter BIRTHS = counter("births");
+	public static final Counter DEATHS = counter("deaths");
+	public static final Histogram STEP_TIME = histogram("step.time", NANOS); //Time of each nextGen, history and diffs included
+	public static final Histogram STEP_CELLS = histogram("step.cells", CELLS); //Cells evaluated by each nextGen
+	public static final Histogram STEP_BIRTHS = histogram("step.births", CELLS);
+	public static final Histogram STEP_DEATHS = histogram("step.deaths", CELLS);
+	public static final Histogram STEP_ALLOCATION = histogram("step.allocated", BYTES); //Heap allocated by the stepping thread in each nextGen
+	public static final Histogram PAINT_TIME = histogram("paint.time", NANOS);
+	public static final Histogram PATTERN_LOAD_TIME = histogram("pattern.load.time", NANOS);
+	public static final Histogram SNAPSHOT_WRITE_TIME = histogram("snapshot.write.time", NANOS);
+	public static final Histogram SNAPSHOT_READ_TIME = histogram("snapshot.read.time", NANOS);
+
+	private Metrics() {
+	}
+
+	public static boolean isEnabled() {
+		/*
+		 * Returns true if the instruments record what is measured
+		 *
+		 * */
+
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		/*
+		 * Starts or stops recording into the instruments, what they recorded so far is kept
+		 *
+		 * */
+
+		Metrics.enabled = enabled;
+	}
+
+	public static synchronized Counter counter(String name) {
+		/*
+		 * Returns the counter with the given name, registering it on first use
+		 *
+		 * */
+
+		return counters.computeIfAbsent(name, Counter::new);
+	}
+
+	public static synchronized Histogram histogram(String name, String unit) {
+		/*
+		 * Returns the histogram with the given name, registering it with the given unit on first use
+		 *
+		 * */
+
+		return histograms.computeIfAbsent(name, key -> new Histogram(key, unit));
+	}
+
+	public static synchronized void reset() {
+		/*
+		 * Sets every registered instrument back to zero
+		 *
+		 * */
+
+		for (Counter counter : counters.values()) {
+			counter.reset();
+		}
+		for (Histogram histogram : histograms.values()) {
+			histogram.reset();
+		}
+	}
+
+	public static String report() {
+		/*
+		 * Returns one line per registered instrument that recorded anything, in the order they were registered
+		 * Histograms show their count, mean, median, 99th percentile and maximum, times in milliseconds
+		 *
+		 * */
+
+		List<Counter> counterList;
+		List<Histogram> histogramList;
+		synchronized (Metrics.class) {
+			counterList = new ArrayList<>(counters.values());
+			histogramList = new ArrayList<>(histograms.values());
+		}
+
+		StringBuilder out = new StringBuilder();
+		for (Counter counter : counterList) {
+			if (counter.get() != 0) {
+				out.append(String.format("%-20s %,d%n", counter.getName(), counter.get()));
+			}
+		}
+		for (Histogram histogram : histogramList) {
+			if (histogram.getCount() != 0) {
+				out.append(String.format("%-20s count=%,d mean=%s p50=%s p99=%s max=%s%n", histogram.getName(), histogram.getCount(),
+						histogram.format(histogram.getMean()), histogram.format(histogram.getPercentile(0.5)),
+						histogram.format(histogram.getPercentile(0.99)), histogram.format(histogram.getMax())));
+			}
+		}
+		return out.toString();
+	}
+
+	static long allocatedBytes() {
+		/*
+		 * Returns the number of bytes the current thread allocated so far, -1 if the JVM does not tell
+		 *
+		 * */
+
+		return Allocation.THREADS != null ? Allocation.THREADS.getCurrentThreadAllocatedBytes() : -1;
+	}
+
+	public static final class Counter {
+		/*
+		 * Running total, cheap to add to from several threads at once
+		 *
+		 * */
+
+		private final String name;
+		private final LongAdder total = new LongAdder();
+
+		private Counter(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void add(long amount) {
+			total.add(amount);
+		}
+
+		public long get() {
+			return total.sum();
+		}
+
+		void reset() {
+			total.reset();
+		}
+	}
+
+	public static final class Histogram {
+		/*
+		 * Distribution of non-negative values in power of two buckets: bucket b holds the values of b bits
+		 * Percentiles are only known to within a factor of two, in exchange recording is a few atomic adds and takes no memory
+		 *
+		 * */
+
+		private final String name, unit;
+		private final AtomicLongArray buckets = new AtomicLongArray(65);
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		private Histogram(String name, String unit) {
+			this.name = name;
+			this.unit = unit;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String getUnit() {
+			return this.unit;
+		}
+
+		public void record(long value) {
+			/*
+			 * Adds a value to the distribution, negative values count as 0
+			 *
+			 * */
+
+			value = Math.max(value, 0);
+			buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+			count.increment();
+			sum.add(value);
+			max.accumulate(value);
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public double getMean() {
+			long n = count.sum();
+			return n == 0 ? 0 : (double) sum.sum() / n;
+		}
+
+		public long getMax() {
+			return max.get();
+		}
+
+		public long getPercentile(double fraction) {
+			/*
+			 * Returns an upper bound of the given fraction of the recorded values, at most twice the exact percentile
+			 *
+			 * */
+
+			long rank = (long) Math.ceil(fraction * count.sum());
+			long seen = 0;
+			for (int b = 0; b < 65; b++) {
+				seen += buckets.get(b);
+				if (seen >= rank && seen > 0) {
+					return Math.min(b == 64 ? Long.MAX_VALUE : (1L << b) - 1, max.get());
+				}
+			}
+			return max.get();
+		}
+
+		void reset() {
+			for (int b = 0; b < 65; b++) {
+				buckets.set(b, 0);
+			}
+			count.reset();
+			sum.reset();
+			max.reset();
+		}
+
+		private String format(double value) {
+			/*
+			 * Formats a value of the histogram in its unit, times in milliseconds
+			 *
+			 * */
+
+			if (unit.equals(NANOS)) {
+				return String.format("%.3f ms", value / 1e6);
+			}
+			return String.format("%,.0f %s", value, unit);
+		}
+	}
+
+	private static final class Allocation {
+		/*
+		 * Holds the thread bean apart from Metrics, so that management classes are only loaded once allocation is measured
+		 *
+		 * */
+
+		static final com.sun.management.ThreadMXBean THREADS = threads();
+
+		private static com.sun.management.ThreadMXBean threads() {
+			java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			if (threads instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+				return (com.sun.management.ThreadMXBean) threads;
+			}
+			return null;
+		}
+	}
+}
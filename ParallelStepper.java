@@ -0,0 +1,98 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelStepper {
+	/*
+	 * Runs the rows of one generation on a ForkJoinPool
+	 * The board is split into horizontal bands that are stepped independently,
+	 * which is safe because every row of the next generation only reads the previous one
+	 *
+	 * */
+
+	public interface RowStepper {
+		/*
+		 * Computes the next generation of rows fromRow (inclusive) to toRow (exclusive)
+		 *
+		 * */
+
+		void stepRows(int fromRow, int toRow);
+	}
+
+	private static final int MIN_BAND_HEIGHT = 8; //Bands smaller than this are not worth a task of their own
+	private static final int BANDS_PER_THREAD = 4; //Extra bands so threads that finish early can steal work
+
+	private final ForkJoinPool pool;
+	private final int parallelism;
+
+	public ParallelStepper(int parallelism) {
+		/*
+		 * Constructs a stepper that runs on its own pool with the given number of threads
+		 * Throws IllegalArgumentException if parallelism is less than 1
+		 *
+		 * */
+
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.parallelism = parallelism;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	public int getParallelism() {
+		/*
+		 * Returns the number of threads this stepper runs on
+		 *
+		 * */
+
+		return this.parallelism;
+	}
+
+	public void run(int height, RowStepper stepper) {
+		/*
+		 * Steps rows 0 to height of a board, returning once every band is done
+		 *
+		 * */
+
+		int bandHeight = Math.max(MIN_BAND_HEIGHT, height / (parallelism * BANDS_PER_THREAD));
+		pool.invoke(new BandTask(stepper, 0, height, bandHeight));
+	}
+
+	public void shutdown() {
+		/*
+		 * Stops the threads of this stepper, it can not be used afterwards
+		 *
+		 * */
+
+		pool.shutdown();
+	}
+
+	private static class BandTask extends RecursiveAction {
+		/*
+		 * Splits a band of rows in half until it is small enough, then steps it
+		 *
+		 * */
+
+		private static final long serialVersionUID = 1L; //ForkJoinTask is Serializable, bands are never serialized
+
+		private final transient RowStepper stepper;
+		private final int fromRow, toRow, bandHeight;
+
+		BandTask(RowStepper stepper, int fromRow, int toRow, int bandHeight) {
+			this.stepper = stepper;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.bandHeight = bandHeight;
+		}
+
+		@Override
+		protected void compute() {
+			if (toRow - fromRow <= bandHeight) {
+				stepper.stepRows(fromRow, toRow);
+			}
+			else {
+				int middle = (fromRow + toRow) >>> 1;
+				invokeAll(new BandTask(stepper, fromRow, middle, bandHeight), new BandTask(stepper, middle, toRow, bandHeight));
+			}
+		}
+	}
+}
@@ -0,0 +1,283 @@
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public final class PatternIO {
+	/*
+	 * Reads and writes Game of Life patterns in the standard RLE (.rle) and plaintext (.cells) formats
+	 *
+	 * Reading is streaming: the input is parsed one character at a time and every run of living cells
+	 * goes straight onto the board with GameOfLife.setAliveRun, without building a grid of the pattern first
+	 * A "#R x y" or "#P x y" line in an RLE file places the pattern's top left corner at (x, y)
+	 * The "rule = ..." part of an RLE header is applied to the board with GameOfLife.setRule before any cell is placed
+	 *
+	 * */
+
+	private static final int LINE_LENGTH = 70; //Longest line written in RLE files, as the format recommends
+
+	private PatternIO() {
+	}
+
+	public static void read(Reader in, GameOfLife game, int offsetX, int offsetY) throws IOException {
+		/*
+		 * Reads an RLE or plaintext pattern onto game, with its top left corner at (offsetX, offsetY)
+		 * The format is detected from the first character: '!' or '.' / 'O' start a plaintext file, anything else RLE
+		 * Cells that fall outside a bounded board are ignored
+		 * An RLE pattern that names a rule in its header sets the board to that rule
+		 * Throws IllegalArgumentException if the input is not a valid pattern, or its rule is not a B/S rule the engine can run
+		 * Errors in the comment lines or the header are thrown before the board is changed, cells are streamed onto the board
+		 * so an error in the cell data is thrown with the cells before it already placed (and the header's rule applied)
+		 * The load is timed into Metrics.PATTERN_LOAD_TIME and LifeEvents.PatternLoad while either is enabled
+		 *
+		 * */
+
+		LifeEvents.PatternLoad event = new LifeEvents.PatternLoad();
+		boolean measured = Metrics.isEnabled() || event.isEnabled();
+		long start = measured ? System.nanoTime() : 0;
+		long cellsBefore = event.isEnabled() ? game.countLivingCells() : 0;
+		event.begin();
+
+		BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+		reader.mark(1);
+		int first = reader.read();
+		reader.reset();
+		boolean plaintext = first == '!' || first == '.' || first == 'O';
+		if (plaintext) {
+			readPlaintext(reader, game, offsetX, offsetY);
+		}
+		else {
+			readRle(reader, game, offsetX, offsetY);
+		}
+
+		if (measured) {
+			if (Metrics.isEnabled()) {
+				Metrics.PATTERN_LOAD_TIME.record(System.nanoTime() - start);
+			}
+			event.end();
+			if (event.shouldCommit()) {
+				event.format = plaintext ? "plaintext" : "rle";
+				event.cells = game.countLivingCells() - cellsBefore;
+				event.commit();
+			}
+		}
+	}
+
+	public static void readResource(String resource, GameOfLife game, int offsetX, int offsetY) throws IOException {
+		/*
+		 * Reads a pattern from a resource file on the class path, such as "patterns/gosper-gun.rle"
+		 * Throws FileNotFoundException if there is no such resource
+		 *
+		 * */
+
+		InputStream stream = PatternIO.class.getResourceAsStream(resource);
+		if (stream == null) {
+			throw new FileNotFoundException("Missing pattern resource: " + resource);
+		}
+		try (Reader in = new InputStreamReader(stream, StandardCharsets.US_ASCII)) {
+			read(in, game, offsetX, offsetY);
+		}
+	}
+
+	private static void readRle(BufferedReader reader, GameOfLife game, int offsetX, int offsetY) throws IOException {
+		/*
+		 * Parses RLE: '#' comment lines, a "x = .., y = .., rule = .." header line, then runs of
+		 * 'b' (dead), 'o' or any other letter (alive) and '$' (end of row) up to a closing '!'
+		 *
+		 * */
+
+		//Comment lines and the header
+		String line;
+		while (true) {
+			line = reader.readLine();
+			if (line == null) {
+				throw new IllegalArgumentException("RLE pattern has no header line");
+			}
+			line = line.trim();
+			if (line.startsWith("#R") || line.startsWith("#P")) {
+				String[] position = line.substring(2).trim().split("\\s+");
+				if (position.length != 2) {
+					throw new IllegalArgumentException("Expected \"x y\" after " + line.substring(0, 2) + ", found: " + line);
+				}
+				try {
+					offsetX += Integer.parseInt(position[0]);
+					offsetY += Integer.parseInt(position[1]);
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid position in RLE pattern: " + line, e);
+				}
+			}
+			else if (!line.isEmpty() && !line.startsWith("#")) {
+				break;
+			}
+		}
+		if (!line.startsWith("x")) {
+			throw new IllegalArgumentException("Expected RLE header, found: " + line);
+		}
+		for (String field : line.split(",")) {
+			String[] pair = field.split("=", 2);
+			if (pair.length == 2 && pair[0].trim().equals("rule")) {
+				LifeRule rule;
+				try {
+					rule = LifeRule.parse(pair[1]);
+				}
+				catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Unsupported rule in RLE header: " + pair[1].trim(), e);
+				}
+				game.setRule(rule); //Throws before any cell is placed if the engine can not run the rule
+			}
+		}
+
+		//Runs of cells, read one character at a time
+		int x = 0, y = 0, count = 0;
+		int c;
+		while ((c = reader.read()) != -1 && c != '!') {
+			if (c >= '0' && c <= '9') {
+				count = count * 10 + (c - '0');
+				continue;
+			}
+			int run = count == 0 ? 1 : count;
+			count = 0;
+			if (c == 'b' || c == '.') {
+				x += run;
+			}
+			else if (c == '$') {
+				x = 0;
+				y += run;
+			}
+			else if (Character.isLetter(c)) {
+				game.setAliveRun(offsetX + x, offsetY + y, run);
+				x += run;
+			}
+			else if (!Character.isWhitespace(c)) {
+				throw new IllegalArgumentException("Unexpected character in RLE pattern: " + (char) c);
+			}
+		}
+	}
+
+	private static void readPlaintext(BufferedReader reader, GameOfLife game, int offsetX, int offsetY) throws IOException {
+		/*
+		 * Parses plaintext: '!' comment lines, then one line per row with '.' for dead and 'O' for alive cells
+		 *
+		 * */
+
+		int y = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.startsWith("!")) {
+				continue;
+			}
+			int x = 0;
+			while (x < line.length()) {
+				if (line.charAt(x) == 'O' || line.charAt(x) == '*') {
+					int start = x;
+					while (x < line.length() && (line.charAt(x) == 'O' || line.charAt(x) == '*')) {
+						x++;
+					}
+					game.setAliveRun(offsetX + start, offsetY + y, x - start);
+				}
+				else {
+					x++;
+				}
+			}
+			y++;
+		}
+	}
+
+	public static void writeRle(GameOfLife game, Writer out) throws IOException {
+		/*
+		 * Writes the living cells of the board (its window, for unbounded engines) as RLE
+		 * Only the bounding box of the living cells is written, with a "#R x y" line giving its position
+		 *
+		 * */
+
+		int[] box = game.getLiveBounds();
+		int width = box == null ? 0 : box[2] - box[0] + 1;
+		int height = box == null ? 0 : box[3] - box[1] + 1;
+		if (box != null) {
+			out.write("#R " + box[0] + " " + box[1] + "\n");
+		}
+		out.write("x = " + width + ", y = " + height + ", rule = " + game.getRule() + "\n");
+
+		StringBuilder line = new StringBuilder();
+		int blankRows = 0;
+		for (int y = 0; y < height; y++) {
+			//Collects the runs of the row first, so a run of blank rows can be written as one '$' token
+			StringBuilder row = new StringBuilder();
+			int x = 0;
+			while (x < width) {
+				boolean alive = game.isAlive(box[0] + x, box[1] + y);
+				int run = 1;
+				while (x + run < width && game.isAlive(box[0] + x + run, box[1] + y) == alive) {
+					run++;
+				}
+				x += run;
+				if (alive || x < width) { //Trailing dead cells of a row are left out
+					row.append(run == 1 ? "" : Integer.toString(run)).append(alive ? 'o' : 'b');
+				}
+			}
+			if (row.length() == 0) {
+				blankRows++;
+				continue;
+			}
+			if (y > 0) {
+				int rowEnds = blankRows + 1;
+				appendToken(out, line, (rowEnds == 1 ? "" : Integer.toString(rowEnds)) + "$");
+			}
+			blankRows = 0;
+
+			//Splits the row back into tokens so lines can wrap between them
+			int start = 0;
+			for (int i = 0; i < row.length(); i++) {
+				if (Character.isLetter(row.charAt(i))) {
+					appendToken(out, line, row.substring(start, i + 1));
+					start = i + 1;
+				}
+			}
+		}
+		appendToken(out, line, "!");
+		out.write(line.toString());
+		out.write("\n");
+		out.flush();
+	}
+
+	public static void writePlaintext(GameOfLife game, Writer out) throws IOException {
+		/*
+		 * Writes the living cells of the board (its window, for unbounded engines) as plaintext
+		 * Only the bounding box of the living cells is written
+		 *
+		 * */
+
+		int[] box = game.getLiveBounds();
+		out.write("!Generation " + game.getGen() + "\n");
+		if (box != null) {
+			for (int y = box[1]; y <= box[3]; y++) {
+				StringBuilder row = new StringBuilder();
+				for (int x = box[0]; x <= box[2]; x++) {
+					row.append(game.isAlive(x, y) ? 'O' : '.');
+				}
+				out.write(row.toString());
+				out.write("\n");
+			}
+		}
+		out.flush();
+	}
+
+	private static void appendToken(Writer out, StringBuilder line, String token) throws IOException {
+		/*
+		 * Adds a token to the current line, writing the line out first if the token would make it too long
+		 *
+		 * */
+
+		if (line.length() + token.length() > LINE_LENGTH) {
+			out.write(line.toString());
+			out.write("\n");
+			line.setLength(0);
+		}
+		line.append(token);
+	}
+}
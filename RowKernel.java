@@ -0,0 +1,85 @@
+public interface RowKernel {
+	/*
+	 * Computes the next generation of one bit-packed row of a BitBoard
+	 * Implementations must give exactly the same result as BitBoard.stepRow, words past either end of the row are DEAD
+	 *
+	 * The kernel BitBoards use is chosen once at startup with the system property gameoflife.kernel:
+	 * 		"scalar" - one 64 cell word at a time
+	 * 		"vector" - whole vector registers at a time with the jdk.incubator.vector module
+	 * 		"auto" (default) - vector if the module is available, scalar otherwise
+	 *
+	 * */
+
+	void stepRow(long[] above, long[] row, long[] below, long[] out, int words);
+
+	String getName();
+
+	RowKernel SCALAR = new RowKernel() {
+		public void stepRow(long[] above, long[] row, long[] below, long[] out, int words) {
+			BitBoard.stepRow(above, row, below, out, words);
+		}
+
+		public String getName() {
+			return "scalar";
+		}
+	};
+
+	static RowKernel vector() {
+		/*
+		 * Returns the Vector API kernel, or null if the JVM was started without jdk.incubator.vector
+		 * The kernel is loaded by name so this interface still links when the module is missing
+		 *
+		 * */
+
+		try {
+			return (RowKernel) Class.forName("VectorRowKernel").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	static RowKernel forName(String name) {
+		/*
+		 * Returns the kernel with the given name ("scalar", "vector" or "auto")
+		 * Throws IllegalArgumentException if the name is unknown or the vector kernel is asked for but unavailable
+		 *
+		 * */
+
+		if (name.equals("scalar")) {
+			return SCALAR;
+		}
+		RowKernel vector = vector();
+		if (name.equals("auto")) {
+			return vector != null ? vector : SCALAR;
+		}
+		if (name.equals("vector")) {
+			if (vector == null) {
+				throw new IllegalArgumentException("Vector kernel needs --add-modules jdk.incubator.vector");
+			}
+			return vector;
+		}
+		throw new IllegalArgumentException("Unknown kernel: " + name);
+	}
+
+	static RowKernel defaultKernel() {
+		/*
+		 * Returns the kernel selected by the gameoflife.kernel system property
+		 *
+		 * */
+
+		return Holder.DEFAULT;
+	}
+
+	final class Holder {
+		/*
+		 * Resolves the default kernel once, the first time it is asked for
+		 *
+		 * */
+
+		static final RowKernel DEFAULT = forName(System.getProperty("gameoflife.kernel", "auto"));
+
+		private Holder() {
+		}
+	}
+}
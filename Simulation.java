@@ -0,0 +1,478 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+public class Simulation implements BoardSource {
+	/*
+	 * Runs a GameOfLife on a thread of its own, so a slow generation never holds up the thread that draws the board
+	 *
+	 * The game belongs to the simulation thread once the simulation is constructed
+	 * Other threads change it only through edit, which puts the change on a lock-free queue that is drained between generations
+	 *
+	 * After each generation, or batch of edits, the board is published as a frame: its bit-packed rows and the cells that changed
+	 * Three frames rotate without locks: the simulation thread writes one, one waits in the ready slot, and the reader holds the third
+	 * A frame is only copied where it is out of date, so publishing costs as much as the activity on the board
+	 * While running, a new frame is only published once the reader took the last one; generations in between are not copied at all
+	 *
+	 * The BoardSource methods and the frame getters read the reader's frame and must all be called from one thread,
+	 * normally the event dispatch thread
+	 * On an unbounded plane a frame also holds the block counts of the last view the reader asked for with countBlocks,
+	 * a view it did not ask for before is counted in the next frame, which is published right away
+	 *
+	 * */
+
+	private static final class Frame {
+		final long[][] rows; //Bit-packed rows of the board
+		final ChangeSet changes; //Cells changed since the frame the reader held before this one
+		final ChangeSet stale; //Cells whose rows differ from the game, only used by the simulation thread
+		long gen, cyclePeriod, cycleStart;
+		long historyStart, historyEnd;
+		boolean bounded;
+		View view; //View counted into counts, null if none was
+		int[] counts = new int[0];
+
+		Frame(int width, int height) {
+			rows = new long[height][(width + 63) >>> 6];
+			changes = new ChangeSet(width, height);
+			stale = new ChangeSet(width, height);
+			stale.addAll();
+		}
+	}
+
+	private static final class View {
+		final int x, y, level, columns, rows;
+
+		View(int x, int y, int level, int columns, int rows) {
+			this.x = x;
+			this.y = y;
+			this.level = level;
+			this.columns = columns;
+			this.rows = rows;
+		}
+
+		boolean is(int x, int y, int level, int columns, int rows) {
+			return this.x == x && this.y == y && this.level == level && this.columns == columns && this.rows == rows;
+		}
+	}
+
+	private final GameOfLife game;
+	private final int width, height;
+	private final Thread thread;
+	private final ConcurrentLinkedQueue<Consumer<GameOfLife>> edits = new ConcurrentLinkedQueue<>();
+	private final AtomicReference<Frame> ready = new AtomicReference<>(); //Latest published frame, null once the reader took it
+	private final ConcurrentLinkedQueue<Frame> free = new ConcurrentLinkedQueue<>(); //Frames the reader is done with
+	private volatile boolean running, stopWhenSettled, closed;
+	private volatile long delayNanos;
+	private volatile int generationsPerStep = 1;
+	private volatile Runnable frameListener;
+	private volatile View view; //Blocks the reader last asked for, counted into every frame on an unbounded plane
+	private volatile boolean viewRequested; //The reader asked for a view no frame has counted yet
+
+	//Used by the simulation thread only
+	private final List<Frame> frames = new ArrayList<>();
+	private final ChangeSet published; //Cells changed since the last frame was published
+	private Frame back; //Frame being written
+
+	//Used by the reader only
+	private Frame front; //Frame being drawn
+	private boolean collected; //True once collectChanges was called
+
+	public Simulation(GameOfLife game) {
+		/*
+		 * Constructs a paused simulation of game and starts its thread
+		 * From now on game must only be changed through edit
+		 *
+		 * */
+
+		this.game = game;
+		this.width = game.getWidth();
+		this.height = game.getHeight();
+		this.published = new ChangeSet(width, height);
+		game.collectChanges(published);
+		published.clear();
+
+		//The first frame goes straight to the reader, the thread is not running yet
+		this.back = newFrame();
+		copyGame(back);
+		this.front = back;
+		this.back = newFrame();
+
+		this.thread = new Thread(this::run, "Game of Life simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void edit(Consumer<GameOfLife> change) {
+		/*
+		 * Queues a change to the game, applied by the simulation thread before its next generation
+		 * Changes are applied in the order they were queued
+		 *
+		 * */
+
+		edits.add(change);
+		LockSupport.unpark(thread);
+	}
+
+	public void setRunning(boolean running) {
+		/*
+		 * Starts or stops stepping the game, one step per delay
+		 *
+		 * */
+
+		this.running = running;
+		LockSupport.unpark(thread);
+	}
+
+	public boolean isRunning() {
+		/*
+		 * Returns true while the game is stepped, false once stopped by setRunning, settling or a step that threw
+		 *
+		 * */
+
+		return this.running;
+	}
+
+	public void setDelay(long millis) {
+		/*
+		 * Sets the time between steps while running, 0 to step as fast as the game allows
+		 *
+		 * */
+
+		this.delayNanos = millis * 1000000L;
+		LockSupport.unpark(thread);
+	}
+
+	public void setGenerationsPerStep(int generations) {
+		/*
+		 * Sets how many generations are advanced per step while running, frames are only published between steps
+		 * If generations is less than 1, IllegalArgumentException is thrown
+		 *
+		 * */
+
+		if (generations < 1) {
+			throw new IllegalArgumentException("A step has to advance at least one generation");
+		}
+		this.generationsPerStep = generations;
+	}
+
+	public void setStopWhenSettled(boolean stopWhenSettled) {
+		/*
+		 * Stops running once the game's cycle detection finds a still life or oscillator
+		 * Cycle detection has to be turned on in the game, through edit
+		 *
+		 * */
+
+		this.stopWhenSettled = stopWhenSettled;
+	}
+
+	public void setFrameListener(Runnable frameListener) {
+		/*
+		 * Sets a listener that is run on the simulation thread every time a frame is published, null for none
+		 * It should only hand the news to the reader's thread, for example with SwingUtilities.invokeLater
+		 *
+		 * */
+
+		this.frameListener = frameListener;
+	}
+
+	public void close() {
+		/*
+		 * Stops the simulation thread, queued edits that were not applied yet are dropped
+		 *
+		 * */
+
+		closed = true;
+		LockSupport.unpark(thread);
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	public void getRow(int y, long[] words) {
+		/*
+		 * Copies row y of the reader's frame into words
+		 *
+		 * */
+
+		System.arraycopy(front.rows[y], 0, words, 0, front.rows[y].length);
+	}
+
+	public void collectChanges(ChangeSet into) {
+		/*
+		 * Takes the latest published frame, if there is one, and adds the cells that changed since the reader's last frame to into
+		 * The first call adds the whole board
+		 *
+		 * */
+
+		Frame next = ready.getAndSet(null);
+		if (next != null) {
+			into.addAll(next.changes);
+			free.add(front);
+			front = next;
+		}
+		if (!collected) {
+			into.addAll();
+			collected = true;
+		}
+	}
+
+	public boolean isBounded() {
+		/*
+		 * Returns true if the game of the reader's frame ends at its edges
+		 *
+		 * */
+
+		return front.bounded;
+	}
+
+	public void countBlocks(int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Copies the block counts of the reader's frame on an unbounded plane, or counts them from its rows
+		 * A view the frame does not hold is asked for from the simulation thread, until the frame that holds it arrives
+		 * the blocks the frame's view shares with it are copied and the others are empty, so a panned view does not flicker
+		 *
+		 * */
+
+		View held = front.view;
+		if (held != null && held.is(x, y, level, columns, rows)) {
+			System.arraycopy(front.counts, 0, counts, 0, columns * rows);
+			return;
+		}
+		if (front.bounded) {
+			BoardSource.super.countBlocks(x, y, level, columns, rows, counts);
+			return;
+		}
+
+		View wanted = view;
+		if (wanted == null || !wanted.is(x, y, level, columns, rows)) {
+			view = new View(x, y, level, columns, rows);
+			viewRequested = true;
+			LockSupport.unpark(thread);
+		}
+		Arrays.fill(counts, 0, columns * rows, 0);
+		if (held != null && held.level == level) {
+			long dx = ((long) x - held.x) >> level, dy = ((long) y - held.y) >> level;
+			for (int r = 0; r < rows; r++) {
+				long from = r + dy;
+				if (from < 0 || from >= held.rows) {
+					continue;
+				}
+				for (int c = 0; c < columns; c++) {
+					if (c + dx >= 0 && c + dx < held.columns) {
+						counts[r * columns + c] = front.counts[(int) from * held.columns + (int) (c + dx)];
+					}
+				}
+			}
+		}
+	}
+
+	public long getGen() {
+		/*
+		 * Returns the generation of the reader's frame
+		 *
+		 * */
+
+		return front.gen;
+	}
+
+	public long getCyclePeriod() {
+		/*
+		 * Returns the cycle period the game had in the reader's frame, 0 if none was found
+		 *
+		 * */
+
+		return front.cyclePeriod;
+	}
+
+	public long getCycleStart() {
+		/*
+		 * Returns the first generation of the cycle in the reader's frame, -1 if none was found
+		 *
+		 * */
+
+		return front.cycleStart;
+	}
+
+	public long getHistoryStart() {
+		/*
+		 * Returns the oldest generation the game could seek in the reader's frame, -1 if history is off
+		 *
+		 * */
+
+		return front.historyStart;
+	}
+
+	public long getHistoryEnd() {
+		/*
+		 * Returns the newest generation the game could seek in the reader's frame, -1 if history is off
+		 *
+		 * */
+
+		return front.historyEnd;
+	}
+
+	private void run() {
+		/*
+		 * Applies edits and steps the game until the simulation is closed, publishing frames as it goes
+		 * Sleeps between generations, and while paused until an edit arrives or it is started again
+		 * A step that throws is reported and stops running, the frame after it tells the reader
+		 *
+		 * */
+
+		boolean unpublished = false;
+		boolean wasRunning = false;
+		long nextStep = 0;
+		while (!closed) {
+			unpublished |= applyEdits();
+			if (viewRequested) {
+				viewRequested = false;
+				unpublished = true;
+			}
+			boolean stepping = running;
+			long now = System.nanoTime();
+			if (stepping && !wasRunning) {
+				nextStep = now;
+			}
+			wasRunning = stepping;
+			if (stepping && now - nextStep >= 0) {
+				int generations = generationsPerStep;
+				try {
+					if (generations == 1) {
+						game.nextGen();
+					}
+					else {
+						game.advance(generations);
+					}
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+					running = false;
+					stepping = false;
+				}
+				unpublished = true;
+				nextStep = Math.max(nextStep + delayNanos, now);
+				if (stopWhenSettled && game.getCyclePeriod() > 0) {
+					running = false;
+					stepping = false;
+				}
+			}
+
+			//While running, waits for the reader to take the last frame instead of copying every generation
+			if (unpublished && (!stepping || ready.get() == null)) {
+				publish();
+				unpublished = false;
+			}
+
+			if (!stepping) {
+				if (edits.isEmpty() && !running && !closed && !viewRequested) {
+					LockSupport.park(this);
+				}
+			}
+			else if (nextStep - System.nanoTime() > 0 && edits.isEmpty()) {
+				LockSupport.parkNanos(this, nextStep - System.nanoTime());
+			}
+		}
+	}
+
+	private boolean applyEdits() {
+		/*
+		 * Applies the queued edits, returns true if there were any
+		 * An edit that throws is reported and skipped, so it can not stop the simulation
+		 *
+		 * */
+
+		boolean any = false;
+		Consumer<GameOfLife> change;
+		while ((change = edits.poll()) != null) {
+			try {
+				change.accept(game);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+			any = true;
+		}
+		return any;
+	}
+
+	private void publish() {
+		/*
+		 * Brings the back frame up to date with the game and puts it in the ready slot,
+		 * merging in the changes of a frame it replaces that the reader never took
+		 *
+		 * */
+
+		game.collectChanges(published);
+		for (Frame frame : frames) {
+			frame.stale.addAll(published);
+		}
+		copyGame(back);
+
+		Frame old;
+		do {
+			old = ready.get();
+			back.changes.clear();
+			back.changes.addAll(published);
+			if (old != null) {
+				back.changes.addAll(old.changes);
+			}
+		} while (!ready.compareAndSet(old, back));
+		published.clear();
+
+		back = old != null ? old : free.poll();
+		if (back == null) {
+			back = newFrame();
+		}
+
+		Runnable listener = frameListener;
+		if (listener != null) {
+			listener.run();
+		}
+	}
+
+	private void copyGame(Frame frame) {
+		/*
+		 * Copies the out of date rows of the game into frame, along with the generation, cycle and history range of the game
+		 *
+		 * */
+
+		ChangeSet stale = frame.stale;
+		for (int y = stale.getFirstRow(); y <= stale.getLastRow(); y++) {
+			if (stale.isChanged(y)) {
+				game.getRow(y, frame.rows[y]);
+			}
+		}
+		stale.clear();
+		frame.gen = game.getGen();
+		frame.cyclePeriod = game.getCyclePeriod();
+		frame.cycleStart = game.getCycleStart();
+		frame.historyStart = game.getHistoryStart();
+		frame.historyEnd = game.getHistoryEnd();
+		frame.bounded = game.isBounded();
+		frame.view = frame.bounded ? null : view;
+		if (frame.view != null) {
+			if (frame.counts.length < frame.view.columns * frame.view.rows) {
+				frame.counts = new int[frame.view.columns * frame.view.rows];
+			}
+			game.countBlocks(frame.view.x, frame.view.y, frame.view.level, frame.view.columns, frame.view.rows, frame.counts);
+		}
+	}
+
+	private Frame newFrame() {
+		/*
+		 * Allocates a frame, out of date everywhere until it is first written
+		 *
+		 * */
+
+		Frame frame = new Frame(width, height);
+		frames.add(frame);
+		return frame;
+	}
+}
@@ -0,0 +1,428 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class SparseUniverse implements LifeEngine {
+	/*
+	 * Game of Life engine on an unbounded plane, stored as 64 x 64 bit tiles in a hash map keyed by tile coordinates
+	 * Only tiles with living cells are kept, so memory is proportional to the live area
+	 * and a few gliders can travel millions of cells for the cost of a handful of tiles
+	 *
+	 * Width and height only describe the window the board is displayed in
+	 *
+	 * */
+
+	private HashMap<Long, long[]> tiles = new HashMap<>();
+	private HashMap<Long, long[]> nextTiles = new HashMap<>();
+	private final HashSet<Long> visited = new HashSet<>(); //Tiles already stepped this generation
+	private final ArrayDeque<long[]> freeTiles = new ArrayDeque<>(); //Tiles that died, reused instead of allocating
+	private final int width, height;
+	private long population;
+	private LifeRule rule = LifeRule.CONWAY;
+	private ChangeSet changes; //Cells in the window that flip are added to it, null when changes are not tracked
+
+	public SparseUniverse(int width, int height) {
+		/*
+		 * Constructs an empty universe shown through a window of the specified width and height
+		 *
+		 * */
+
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.width = width;
+		this.height = height;
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the window the universe is displayed in
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the window the universe is displayed in
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public boolean isBounded() {
+		/*
+		 * The universe is unbounded, cells can be read and set at any coordinate
+		 *
+		 * */
+
+		return false;
+	}
+
+	public boolean isAlive(int x, int y) {
+		/*
+		 * Returns true if the cell at (x, y) is alive
+		 *
+		 * */
+
+		long[] tile = tiles.get(key(x >> BitTile.SHIFT, y >> BitTile.SHIFT));
+		return tile != null && (tile[y & (BitTile.SIZE - 1)] & (1L << x)) != 0;
+	}
+
+	public void setAlive(int x, int y, boolean alive) {
+		/*
+		 * Sets the cell at (x, y), creating its tile if needed and dropping it once it is empty
+		 *
+		 * */
+
+		long key = key(x >> BitTile.SHIFT, y >> BitTile.SHIFT);
+		long[] tile = tiles.get(key);
+		if (tile == null) {
+			if (!alive) {
+				return;
+			}
+			tile = newTile();
+			tiles.put(key, tile);
+		}
+		int row = y & (BitTile.SIZE - 1);
+		long bit = 1L << x;
+		boolean wasAlive = (tile[row] & bit) != 0;
+		if (alive != wasAlive) {
+			tile[row] ^= bit;
+			population += alive ? 1 : -1;
+			if (!alive && BitTile.population(tile) == 0) {
+				freeTiles.push(tiles.remove(key));
+			}
+		}
+	}
+
+	public void getRow(int y, long[] words) {
+		/*
+		 * Copies row y of the window into words, each word is a row of a tile since tiles are 64 cells wide
+		 *
+		 * */
+
+		for (int k = 0; k < (width + 63) >>> 6; k++) {
+			words[k] = tile(k, y >> BitTile.SHIFT)[y & (BitTile.SIZE - 1)];
+		}
+		if ((width & 63) != 0 && words.length > 0) {
+			words[(width - 1) >>> 6] &= (1L << (width & 63)) - 1;
+		}
+	}
+
+	public void setRow(int y, long[] words) {
+		/*
+		 * Replaces row y of the window with words, one word per tile, creating and dropping tiles as needed
+		 * Cells of the last tile that lie past the right edge of the window are kept
+		 *
+		 * */
+
+		int ty = y >> BitTile.SHIFT, row = y & (BitTile.SIZE - 1);
+		for (int k = 0; k < (width + 63) >>> 6; k++) {
+			long mask = (k + 1) << 6 <= width ? -1L : (1L << (width & 63)) - 1;
+			long key = key(k, ty);
+			long[] tile = tiles.get(key);
+			if (tile == null) {
+				if ((words[k] & mask) == 0) {
+					continue;
+				}
+				tile = newTile();
+				tiles.put(key, tile);
+			}
+			long word = (tile[row] & ~mask) | (words[k] & mask);
+			population += Long.bitCount(word) - Long.bitCount(tile[row]);
+			tile[row] = word;
+			if (word == 0 && BitTile.population(tile) == 0) {
+				freeTiles.push(tiles.remove(key));
+			}
+		}
+	}
+
+	public int[] getLiveBounds() {
+		/*
+		 * Returns {minX, minY, maxX, maxY} of the living cells in the window, or null if there are none
+		 * Only the tiles overlapping the window are looked at, so this costs as much as the live area
+		 *
+		 * */
+
+		int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = -1, bottom = -1;
+		for (Map.Entry<Long, long[]> entry : tiles.entrySet()) {
+			int tx = tileX(entry.getKey()), ty = tileY(entry.getKey());
+			if (tx < 0 || ty < 0 || tx << BitTile.SHIFT >= width || ty << BitTile.SHIFT >= height) {
+				continue;
+			}
+			long[] tile = entry.getValue();
+			long mask = (tx + 1) << BitTile.SHIFT <= width ? -1L : (1L << (width & 63)) - 1;
+			for (int row = 0; row < BitTile.SIZE && (ty << BitTile.SHIFT) + row < height; row++) {
+				long word = tile[row] & mask;
+				if (word != 0) {
+					int y = (ty << BitTile.SHIFT) + row;
+					left = Math.min(left, (tx << BitTile.SHIFT) + Long.numberOfTrailingZeros(word));
+					right = Math.max(right, (tx << BitTile.SHIFT) + 63 - Long.numberOfLeadingZeros(word));
+					top = Math.min(top, y);
+					bottom = Math.max(bottom, y);
+				}
+			}
+		}
+		return right < 0 ? null : new int[] {left, top, right, bottom};
+	}
+
+	public void countBlocks(int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Counts the living cells of blocks of 2^level x 2^level cells anywhere on the plane, laid out like BoardSource.countBlocks
+		 * Looks up the tiles under the blocks, or walks every tile when there are fewer of them, so this costs at most as much as the live area
+		 *
+		 * */
+
+		Arrays.fill(counts, 0, columns * rows, 0);
+		long right = x + ((long) columns << level), bottom = y + ((long) rows << level);
+		int fromTx = x >> BitTile.SHIFT, fromTy = y >> BitTile.SHIFT;
+		int toTx = (int) ((right - 1) >> BitTile.SHIFT), toTy = (int) ((bottom - 1) >> BitTile.SHIFT);
+		if ((long) (toTx - fromTx + 1) * (toTy - fromTy + 1) <= tiles.size()) {
+			for (int ty = fromTy; ty <= toTy; ty++) {
+				for (int tx = fromTx; tx <= toTx; tx++) {
+					long[] tile = tiles.get(key(tx, ty));
+					if (tile != null) {
+						countTile(tx, ty, tile, x, y, level, columns, rows, counts);
+					}
+				}
+			}
+			return;
+		}
+		for (Map.Entry<Long, long[]> entry : tiles.entrySet()) {
+			int tx = tileX(entry.getKey()), ty = tileY(entry.getKey());
+			if (tx >= fromTx && tx <= toTx && ty >= fromTy && ty <= toTy) {
+				countTile(tx, ty, entry.getValue(), x, y, level, columns, rows, counts);
+			}
+		}
+	}
+
+	private static void countTile(int tx, int ty, long[] tile, int x, int y, int level, int columns, int rows, int[] counts) {
+		/*
+		 * Adds the living cells of a tile to the blocks of countBlocks they are in
+		 * Blocks of a tile's width or more take whole rows of it, smaller blocks take its cells one at a time
+		 *
+		 * */
+
+		long left = ((long) tx << BitTile.SHIFT) - x;
+		for (int row = 0; row < BitTile.SIZE; row++) {
+			long word = tile[row];
+			long by = (((long) ty << BitTile.SHIFT) + row - y) >> level;
+			if (word == 0 || by < 0 || by >= rows) {
+				continue;
+			}
+			int offset = (int) by * columns;
+			if (level >= BitTile.SHIFT) {
+				long bx = left >> level;
+				if (bx >= 0 && bx < columns) {
+					counts[offset + (int) bx] += Long.bitCount(word);
+				}
+				continue;
+			}
+			for (; word != 0; word &= word - 1) {
+				long bx = (left + Long.numberOfTrailingZeros(word)) >> level;
+				if (bx >= 0 && bx < columns) {
+					counts[offset + (int) bx]++;
+				}
+			}
+		}
+	}
+
+	public long getHash() {
+		/*
+		 * Returns the BoardHash of the whole universe, not only of the window, so a pattern that leaves the window still changes it
+		 * Only the rows of the tiles are looked at, so this costs as much as the live area
+		 *
+		 * */
+
+		long hash = 0;
+		for (Map.Entry<Long, long[]> entry : tiles.entrySet()) {
+			int x = tileX(entry.getKey()) << BitTile.SHIFT, y = tileY(entry.getKey()) << BitTile.SHIFT;
+			long[] tile = entry.getValue();
+			for (int row = 0; row < BitTile.SIZE; row++) {
+				if (tile[row] != 0) {
+					hash ^= BoardHash.bitsKey(x, y + row, tile[row]);
+				}
+			}
+		}
+		return hash;
+	}
+
+	public void clear() {
+		/*
+		 * Kills every cell in the universe
+		 *
+		 * */
+
+		freeTiles.addAll(tiles.values());
+		tiles.clear();
+		population = 0;
+	}
+
+	public int countLivingCells() {
+		/*
+		 * Returns the number of living cells in the whole universe, capped at Integer.MAX_VALUE
+		 *
+		 * */
+
+		return (int) Math.min(population, Integer.MAX_VALUE);
+	}
+
+	public long getPopulation() {
+		/*
+		 * Returns the number of living cells in the whole universe
+		 *
+		 * */
+
+		return this.population;
+	}
+
+	public int getTileCount() {
+		/*
+		 * Returns the number of tiles currently stored
+		 *
+		 * */
+
+		return tiles.size();
+	}
+
+	public void nextGen() {
+		/*
+		 * Steps every stored tile and every tile next to one, since cells can be born across a tile edge
+		 * Tiles that end up empty are not kept
+		 *
+		 * */
+
+		visited.clear();
+		population = 0;
+		for (Map.Entry<Long, long[]> entry : tiles.entrySet()) {
+			int tx = tileX(entry.getKey()), ty = tileY(entry.getKey());
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					long key = key(tx + dx, ty + dy);
+					if (visited.add(key)) {
+						stepTile(tx + dx, ty + dy, key);
+					}
+				}
+			}
+		}
+
+		freeTiles.addAll(tiles.values());
+		tiles.clear();
+		HashMap<Long, long[]> temp = tiles;
+		tiles = nextTiles;
+		nextTiles = temp;
+	}
+
+	public long getCellsEvaluated() {
+		/*
+		 * Returns the number of cells in the tiles the last generation stepped
+		 *
+		 * */
+
+		return (long) visited.size() * BitTile.SIZE * BitTile.SIZE;
+	}
+
+	public boolean setChangeSet(ChangeSet changes) {
+		/*
+		 * Adds the cells of the window that flip in each step to changes from now on, null stops
+		 *
+		 * */
+
+		this.changes = changes;
+		return true;
+	}
+
+	public void setStepper(ParallelStepper stepper) {
+		/*
+		 * Tiles are stepped sequentially, so the stepper is not used
+		 *
+		 * */
+	}
+
+	public void setRule(LifeRule rule) {
+		/*
+		 * Sets the rule tiles are stepped with
+		 * Throws IllegalArgumentException for B0 rules, which would fill the whole plane
+		 *
+		 * */
+
+		if (rule.birthOnZero()) {
+			throw new IllegalArgumentException("B0 rules can not run on an unbounded plane: " + rule);
+		}
+		this.rule = rule;
+	}
+
+	private void stepTile(int tx, int ty, long key) {
+		/*
+		 * Computes the next generation of the tile at (tx, ty) into nextTiles, if it has any living cells
+		 *
+		 * */
+
+		long[] out = newTile();
+		long[] current = tile(tx, ty);
+		int tilePopulation = BitTile.step(current, tile(tx, ty - 1), tile(tx, ty + 1), tile(tx - 1, ty), tile(tx + 1, ty),
+				tile(tx - 1, ty - 1), tile(tx + 1, ty - 1), tile(tx - 1, ty + 1), tile(tx + 1, ty + 1), out, rule);
+		if (changes != null && tx >= 0 && ty >= 0 && tx << BitTile.SHIFT < width && ty << BitTile.SHIFT < height) {
+			for (int row = 0; row < BitTile.SIZE; row++) {
+				long flipped = out[row] ^ current[row];
+				if (flipped != 0) {
+					changes.addSpan((ty << BitTile.SHIFT) + row, (tx << BitTile.SHIFT) + Long.numberOfTrailingZeros(flipped),
+							(tx << BitTile.SHIFT) + 63 - Long.numberOfLeadingZeros(flipped));
+				}
+			}
+		}
+		if (tilePopulation > 0) {
+			nextTiles.put(key, out);
+			population += tilePopulation;
+		}
+		else {
+			freeTiles.push(out);
+		}
+	}
+
+	private long[] tile(int tx, int ty) {
+		/*
+		 * Returns the tile at (tx, ty) of the current generation, or the empty tile if there is none
+		 *
+		 * */
+
+		long[] tile = tiles.get(key(tx, ty));
+		return tile != null ? tile : BitTile.EMPTY;
+	}
+
+	private long[] newTile() {
+		/*
+		 * Returns an empty tile, reusing a dropped one if there is one
+		 *
+		 * */
+
+		long[] tile = freeTiles.poll();
+		if (tile == null) {
+			return new long[BitTile.SIZE];
+		}
+		Arrays.fill(tile, 0L);
+		return tile;
+	}
+
+	private static long key(int tx, int ty) {
+		/*
+		 * Packs tile coordinates into a hash map key
+		 *
+		 * */
+
+		return ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+	}
+
+	private static int tileX(long key) {
+		return (int) (key >> 32);
+	}
+
+	private static int tileY(long key) {
+		return (int) key;
+	}
+}
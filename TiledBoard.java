@@ -0,0 +1,320 @@
+import java.util.Arrays;
+
+public class TiledBoard implements LifeEngine, ParallelStepper.RowStepper {
+	/*
+	 * Bounded Game of Life board split into 64 x 64 bit tiles that can sleep
+	 * Every tile remembers whether it changed last generation; a tile is only stepped if it
+	 * or one of its 8 neighbor tiles changed, otherwise its cells can not change either
+	 * Settled regions of a large board therefore cost nothing, and rows of tiles can be stepped in parallel
+	 *
+	 * Cells outside the board are DEAD, like in the other bounded engines
+	 *
+	 * */
+
+	private final int width, height;
+	private final int tilesX, tilesY;
+	private final long[][] tiles; //Current generation of every tile, index ty * tilesX + tx
+	private final long[][] spare; //Buffer each tile's next generation is written into
+	private final boolean[] changed; //Tiles that changed last generation (or were edited)
+	private final boolean[] nextChanged;
+	private final long[][] masks; //Bits of every tile that lie on the board, null for tiles fully on the board
+	private final int[] rowAwake; //Tiles stepped in each row of tiles during the last generation
+	private ParallelStepper stepper; //Steps rows of tiles in parallel, null when stepping sequentially
+	private int population;
+	private LifeRule rule = LifeRule.CONWAY;
+	private ChangeSet changes; //Cells that flip are added to it, null when changes are not tracked
+
+	public TiledBoard(int width, int height) {
+		/*
+		 * Constructs an empty tiled board with specified width and height
+		 *
+		 * */
+
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.width = width;
+		this.height = height;
+		this.tilesX = (width + BitTile.SIZE - 1) >> BitTile.SHIFT;
+		this.tilesY = (height + BitTile.SIZE - 1) >> BitTile.SHIFT;
+		this.tiles = new long[tilesX * tilesY][BitTile.SIZE];
+		this.spare = new long[tilesX * tilesY][BitTile.SIZE];
+		this.changed = new boolean[tilesX * tilesY];
+		this.nextChanged = new boolean[tilesX * tilesY];
+		this.masks = new long[tilesX * tilesY][];
+		this.rowAwake = new int[tilesY];
+
+		//Tiles on the right and bottom edge may hang over the board, their extra cells must stay DEAD
+		for (int ty = 0; ty < tilesY; ty++) {
+			for (int tx = 0; tx < tilesX; tx++) {
+				int columns = Math.min(BitTile.SIZE, width - (tx << BitTile.SHIFT));
+				int rows = Math.min(BitTile.SIZE, height - (ty << BitTile.SHIFT));
+				if (columns < BitTile.SIZE || rows < BitTile.SIZE) {
+					long[] mask = new long[BitTile.SIZE];
+					Arrays.fill(mask, 0, rows, columns == BitTile.SIZE ? -1L : (1L << columns) - 1);
+					masks[ty * tilesX + tx] = mask;
+				}
+			}
+		}
+	}
+
+	public int getWidth() {
+		/*
+		 * Returns width of the board
+		 *
+		 * */
+
+		return this.width;
+	}
+
+	public int getHeight() {
+		/*
+		 * Returns height of the board
+		 *
+		 * */
+
+		return this.height;
+	}
+
+	public boolean isAlive(int x, int y) {
+		/*
+		 * Returns true if the cell at (x, y) is alive
+		 *
+		 * */
+
+		long[] tile = tiles[(y >> BitTile.SHIFT) * tilesX + (x >> BitTile.SHIFT)];
+		return (tile[y & (BitTile.SIZE - 1)] & (1L << x)) != 0;
+	}
+
+	public void setAlive(int x, int y, boolean alive) {
+		/*
+		 * Sets the cell at (x, y) and wakes its tile up
+		 *
+		 * */
+
+		int index = (y >> BitTile.SHIFT) * tilesX + (x >> BitTile.SHIFT);
+		long[] tile = tiles[index];
+		int row = y & (BitTile.SIZE - 1);
+		long bit = 1L << x;
+		if (((tile[row] & bit) != 0) != alive) {
+			tile[row] ^= bit;
+			population += alive ? 1 : -1;
+			changed[index] = true;
+		}
+	}
+
+	public void getRow(int y, long[] words) {
+		/*
+		 * Copies row y into words, one word from each tile along the row
+		 *
+		 * */
+
+		int ty = y >> BitTile.SHIFT, row = y & (BitTile.SIZE - 1);
+		for (int tx = 0; tx < tilesX; tx++) {
+			words[tx] = tiles[ty * tilesX + tx][row];
+		}
+	}
+
+	public void setRow(int y, long[] words) {
+		/*
+		 * Replaces row y with words, waking up every tile whose part of the row changed
+		 *
+		 * */
+
+		int ty = y >> BitTile.SHIFT, row = y & (BitTile.SIZE - 1);
+		for (int tx = 0; tx < tilesX; tx++) {
+			int index = ty * tilesX + tx;
+			long word = masks[index] != null ? words[tx] & masks[index][row] : words[tx];
+			long old = tiles[index][row];
+			if (word != old) {
+				population += Long.bitCount(word) - Long.bitCount(old);
+				tiles[index][row] = word;
+				changed[index] = true;
+			}
+		}
+	}
+
+	public void clear() {
+		/*
+		 * Sets every cell to DEAD, every tile goes to sleep
+		 *
+		 * */
+
+		for (long[] tile : tiles) {
+			Arrays.fill(tile, 0L);
+		}
+		Arrays.fill(changed, rule.birthOnZero()); //Under a B0 rule an empty tile does not stay empty
+		population = 0;
+	}
+
+	public int countLivingCells() {
+		/*
+		 * Returns the number of living cells, kept up to date as tiles are stepped
+		 *
+		 * */
+
+		return this.population;
+	}
+
+	public int countAwakeTiles() {
+		/*
+		 * Returns the number of tiles the next generation will step
+		 *
+		 * */
+
+		int awake = 0;
+		for (int ty = 0; ty < tilesY; ty++) {
+			for (int tx = 0; tx < tilesX; tx++) {
+				if (isAwake(tx, ty)) {
+					awake++;
+				}
+			}
+		}
+		return awake;
+	}
+
+	public void nextGen() {
+		/*
+		 * Steps every awake tile into its spare buffer, then swaps the buffers of the tiles that changed
+		 * Sleeping tiles keep their current buffer, so they cost nothing at all
+		 *
+		 * */
+
+		if (stepper != null) {
+			stepper.run(tilesY, this);
+		}
+		else {
+			stepRows(0, tilesY);
+		}
+
+		for (int i = 0; i < tiles.length; i++) {
+			if (nextChanged[i]) {
+				long[] old = tiles[i];
+				population += BitTile.population(spare[i]) - BitTile.population(old);
+				if (changes != null) {
+					addChanges(i, spare[i], old);
+				}
+				tiles[i] = spare[i];
+				spare[i] = old;
+			}
+			changed[i] = nextChanged[i];
+		}
+	}
+
+	public void stepRows(int fromRow, int toRow) {
+		/*
+		 * Steps the awake tiles in rows of tiles fromRow to toRow
+		 * Only reads the current generation and only writes to tiles in these rows, so rows can run in parallel
+		 *
+		 * */
+
+		for (int ty = fromRow; ty < toRow; ty++) {
+			int awake = 0;
+			for (int tx = 0; tx < tilesX; tx++) {
+				int index = ty * tilesX + tx;
+				if (!isAwake(tx, ty)) {
+					nextChanged[index] = false;
+					continue;
+				}
+				awake++;
+				long[] out = spare[index];
+				BitTile.step(tiles[index], tile(tx, ty - 1), tile(tx, ty + 1), tile(tx - 1, ty), tile(tx + 1, ty),
+						tile(tx - 1, ty - 1), tile(tx + 1, ty - 1), tile(tx - 1, ty + 1), tile(tx + 1, ty + 1), out, rule);
+				long[] mask = masks[index];
+				if (mask != null) {
+					for (int y = 0; y < BitTile.SIZE; y++) {
+						out[y] &= mask[y];
+					}
+				}
+				nextChanged[index] = !Arrays.equals(out, tiles[index]);
+			}
+			rowAwake[ty] = awake;
+		}
+	}
+
+	public long getCellsEvaluated() {
+		/*
+		 * Returns the number of cells in the tiles the last generation stepped
+		 *
+		 * */
+
+		long awake = 0;
+		for (int count : rowAwake) {
+			awake += count;
+		}
+		return awake * BitTile.SIZE * BitTile.SIZE;
+	}
+
+	public boolean setChangeSet(ChangeSet changes) {
+		/*
+		 * Adds the cells that flip in each generation to changes from now on, null stops
+		 * Only the tiles that changed are compared with their last generation, so settled regions still cost nothing
+		 *
+		 * */
+
+		this.changes = changes;
+		return true;
+	}
+
+	public void setStepper(ParallelStepper stepper) {
+		/*
+		 * Sets the stepper rows of tiles are stepped on, null to step sequentially
+		 *
+		 * */
+
+		this.stepper = stepper;
+	}
+
+	public void setRule(LifeRule rule) {
+		/*
+		 * Sets the rule tiles are stepped with and wakes every tile up, since a tile that was settled may not be under the new rule
+		 *
+		 * */
+
+		this.rule = rule;
+		Arrays.fill(changed, true);
+	}
+
+	private void addChanges(int index, long[] next, long[] current) {
+		/*
+		 * Adds the span of the cells that flip in each row of the tile at index to changes
+		 *
+		 * */
+
+		int x = (index % tilesX) << BitTile.SHIFT, y = (index / tilesX) << BitTile.SHIFT;
+		for (int row = 0; row < BitTile.SIZE; row++) {
+			long flipped = next[row] ^ current[row];
+			if (flipped != 0) {
+				changes.addSpan(y + row, x + Long.numberOfTrailingZeros(flipped), x + 63 - Long.numberOfLeadingZeros(flipped));
+			}
+		}
+	}
+
+	private boolean isAwake(int tx, int ty) {
+		/*
+		 * Returns true if the tile at (tx, ty) or one of its neighbors changed last generation
+		 *
+		 * */
+
+		for (int y = Math.max(0, ty - 1); y <= Math.min(tilesY - 1, ty + 1); y++) {
+			for (int x = Math.max(0, tx - 1); x <= Math.min(tilesX - 1, tx + 1); x++) {
+				if (changed[y * tilesX + x]) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private long[] tile(int tx, int ty) {
+		/*
+		 * Returns the current generation of the tile at (tx, ty), or the empty tile if it is off the board
+		 *
+		 * */
+
+		if (tx < 0 || ty < 0 || tx >= tilesX || ty >= tilesY) {
+			return BitTile.EMPTY;
+		}
+		return tiles[ty * tilesX + tx];
+	}
+}
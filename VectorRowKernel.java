@@ -0,0 +1,93 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorRowKernel implements RowKernel {
+	/*
+	 * Row kernel that runs the BitBoard adder logic on whole vector registers at once,
+	 * SPECIES.length() words (64 cells each) per iteration
+	 * Needs the jdk.incubator.vector module at compile and run time, see RowKernel for how it is selected
+	 *
+	 * */
+
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	public String getName() {
+		return "vector";
+	}
+
+	public void stepRow(long[] above, long[] row, long[] below, long[] out, int words) {
+		/*
+		 * Steps the first and last words one at a time (their west or east neighbor is off the row)
+		 * and everything in between with vectors, loading each row again shifted one word west and east
+		 *
+		 * */
+
+		int lanes = SPECIES.length();
+		int k = 0;
+		if (words > 0) {
+			out[0] = scalarWord(above, row, below, 0, words);
+			k = 1;
+		}
+		for (; k + lanes < words; k += lanes) {
+			LongVector a = LongVector.fromArray(SPECIES, above, k);
+			LongVector m = LongVector.fromArray(SPECIES, row, k);
+			LongVector b = LongVector.fromArray(SPECIES, below, k);
+
+			//Aligns the west and east neighbors of every cell with the cell itself
+			LongVector aL = west(a, LongVector.fromArray(SPECIES, above, k - 1));
+			LongVector aR = east(a, LongVector.fromArray(SPECIES, above, k + 1));
+			LongVector mL = west(m, LongVector.fromArray(SPECIES, row, k - 1));
+			LongVector mR = east(m, LongVector.fromArray(SPECIES, row, k + 1));
+			LongVector bL = west(b, LongVector.fromArray(SPECIES, below, k - 1));
+			LongVector bR = east(b, LongVector.fromArray(SPECIES, below, k + 1));
+
+			//Same bit-sliced adders as BitBoard.nextWord
+			LongVector a1 = xor(xor(aL, a), aR), a2 = aL.and(a).or(aR.and(xor(aL, a)));
+			LongVector b1 = xor(xor(bL, b), bR), b2 = bL.and(b).or(bR.and(xor(bL, b)));
+			LongVector m1 = xor(mL, mR), m2 = mL.and(mR);
+			LongVector ones = xor(xor(a1, b1), m1);
+			LongVector carry = a1.and(b1).or(m1.and(xor(a1, b1)));
+			LongVector twosIsOne = xor(xor(a2, b2), xor(m2, carry))
+					.lanewise(VectorOperators.AND_NOT, a2.and(b2))
+					.lanewise(VectorOperators.AND_NOT, m2.and(carry));
+
+			twosIsOne.and(ones.or(m)).intoArray(out, k);
+		}
+		for (; k < words; k++) {
+			out[k] = scalarWord(above, row, below, k, words);
+		}
+	}
+
+	private static LongVector west(LongVector v, LongVector westWords) {
+		return v.lanewise(VectorOperators.LSHL, 1).or(westWords.lanewise(VectorOperators.LSHR, 63));
+	}
+
+	private static LongVector east(LongVector v, LongVector eastWords) {
+		return v.lanewise(VectorOperators.LSHR, 1).or(eastWords.lanewise(VectorOperators.LSHL, 63));
+	}
+
+	private static LongVector xor(LongVector v, LongVector w) {
+		return v.lanewise(VectorOperators.XOR, w);
+	}
+
+	private static long scalarWord(long[] above, long[] row, long[] below, int k, int words) {
+		/*
+		 * Computes word k with BitBoard.nextWord, treating words past either end of the row as DEAD
+		 *
+		 * */
+
+		long aW = 0, mW = 0, bW = 0, aE = 0, mE = 0, bE = 0;
+		if (k > 0) {
+			aW = above[k - 1];
+			mW = row[k - 1];
+			bW = below[k - 1];
+		}
+		if (k < words - 1) {
+			aE = above[k + 1];
+			mE = row[k + 1];
+			bE = below[k + 1];
+		}
+		return BitBoard.nextWord(aW, above[k], aE, mW, row[k], mE, bW, below[k], bE);
+	}
+}